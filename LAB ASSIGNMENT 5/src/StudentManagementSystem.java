@@ -1,5 +1,56 @@
 import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
 
 // --- 1. Custom Exception (Lab 3) ---
 class StudentNotFoundException extends Exception {
@@ -35,10 +86,80 @@ class Loader implements Runnable {
 // --- 3. File Handling Utility (Lab 4) ---
 class FileUtil {
     private static final String FILE_NAME = "students.txt";
+    private static final long MAP_WINDOW = 1L << 30;
+    private static final long MIN_PARALLEL_RANGE = 1L << 20;
+    private static final int WRITE_BUFFER = 1 << 20;
+    private static final int READ_WINDOW = 1 << 16;
+    private static final String TRAILER_PREFIX = "#crc32=";
 
+    public static Path dataFile() {
+        return Paths.get(FILE_NAME);
+    }
+
+    // Every loader reads the snapshot and then replays its journal (see StudentJournal).
     public static Map<Integer, Student> loadStudents() {
+        return loadStudents(dataFile());
+    }
+
+    // Streams the file through RosterParser: numbers are parsed in place and only
+    // name, email and course become Strings. Charsets the byte parser cannot handle
+    // go through loadStudentsBuffered().
+    public static Map<Integer, Student> loadStudents(Path file) {
+        RosterParser parser;
+        try {
+            parser = new RosterParser(Charset.defaultCharset());
+        } catch (UnsupportedOperationException e) {
+            return loadStudentsBuffered(file);
+        }
+        Map<Integer, Student> studentMap = new HashMap<>();
+        try {
+            streamRecords(file, parser, s -> studentMap.put(s.getRollNo(), s));
+            System.out.println("\nSuccessfully loaded " + studentMap.size() + " records from " + file);
+            checkTrailer(file);
+        } catch (NoSuchFileException e) {
+            System.out.println("Data file not found. Starting with an empty student list.");
+        } catch (IOException e) {
+            System.err.println("Error reading student records from file: " + e.getMessage());
+        }
+        StudentJournal.replay(file, studentMap);
+        return studentMap;
+    }
+
+    // Reads the file through one reusable byte window. A line longer than the
+    // window grows it; otherwise the unparsed tail is moved to the front and the
+    // rest of the window refilled.
+    static void streamRecords(Path file, RosterParser parser, Consumer<Student> into) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            byte[] window = new byte[READ_WINDOW];
+            ByteBuffer buffer = ByteBuffer.wrap(window);
+            while (true) {
+                boolean atEnd = channel.read(buffer) < 0;
+                int filled = buffer.position();
+                int consumed = parser.parseLines(buffer, 0, filled, atEnd, into);
+                if (atEnd) {
+                    return;
+                }
+                if (consumed == 0 && filled == window.length) {
+                    window = Arrays.copyOf(window, window.length * 2);
+                    buffer = ByteBuffer.wrap(window);
+                    buffer.position(filled);
+                } else {
+                    System.arraycopy(window, consumed, window, 0, filled - consumed);
+                    buffer.position(filled - consumed);
+                }
+            }
+        }
+    }
+
+    // Line-by-line BufferedReader + split() loader; works with any charset.
+    public static Map<Integer, Student> loadStudentsBuffered(Path file) {
         Map<Integer, Student> studentMap = new HashMap<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(FILE_NAME))) {
+        loadStudentsBuffered(file, new MapStudentStore(studentMap));
+        return studentMap;
+    }
+
+    public static <T extends StudentStore> T loadStudentsBuffered(Path file, T into) {
+        try (BufferedReader reader = new BufferedReader(new FileReader(file.toFile()))) {
             String line;
             while ((line = reader.readLine()) != null) {
                 String[] parts = line.split(",");
@@ -47,82 +168,521 @@ class FileUtil {
                         Integer rollNo = Integer.valueOf(parts[0].trim());
                         String name = parts[1].trim();
                         String email = parts[2].trim();
-                        String course = parts[3].trim();
+                        String course = CourseDictionary.SHARED.intern(parts[3].trim());
                         Double marks = Double.valueOf(parts[4].trim());
-                        Student s = new Student(rollNo, name, email, course, marks);
-                        studentMap.put(rollNo, s);
+                        into.put(rollNo, new Student(rollNo, name, email, course, marks));
                     } catch (NumberFormatException e) {
                         System.err.println("Skipping malformed record in file: " + line);
                     }
                 }
             }
-            System.out.println("\nSuccessfully loaded " + studentMap.size() + " records from " + FILE_NAME);
+            System.out.println("\nSuccessfully loaded " + into.size() + " records from " + file);
+            checkTrailer(file);
         } catch (FileNotFoundException e) {
             System.out.println("Data file not found. Starting with an empty student list.");
         } catch (IOException e) {
             System.err.println("Error reading student records from file: " + e.getMessage());
         }
+        StudentJournal.replay(file, into);
+        return into;
+    }
+
+    // Maps the file and parses records straight out of the byte buffer.
+    // Falls back to loadStudents() if the file cannot be mapped or decoded byte-wise.
+    public static Map<Integer, Student> loadStudentsMapped() {
+        return loadStudentsMapped(dataFile());
+    }
+
+    public static Map<Integer, Student> loadStudentsMapped(Path file) {
+        Map<Integer, Student> studentMap = new HashMap<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            RosterParser parser = new RosterParser(Charset.defaultCharset());
+            parseRegion(channel, 0, channel.size(), parser, s -> studentMap.put(s.getRollNo(), s));
+            System.out.println("\nSuccessfully loaded " + studentMap.size() + " records from " + file);
+            checkTrailer(file);
+        } catch (NoSuchFileException e) {
+            System.out.println("Data file not found. Starting with an empty student list.");
+        } catch (IOException | UnsupportedOperationException e) {
+            System.err.println("Mapped load unavailable (" + e.getMessage() + "), using buffered reader.");
+            return loadStudentsBuffered(file);
+        }
+        StudentJournal.replay(file, studentMap);
+        return studentMap;
+    }
+
+    // Every well-formed record in file order, duplicates included, with no journal replay.
+    // Used for imports, where duplicates are reported rather than silently overwritten.
+    public static List<Student> readRecords(Path file) throws IOException {
+        return readRecords(file, null);
+    }
+
+    // Rejected lines go to malformed (line, reason) when given, otherwise to stderr.
+    // Charsets the byte parser cannot handle are read line by line instead.
+    public static List<Student> readRecords(Path file, BiConsumer<String, String> malformed) throws IOException {
+        List<Student> records = new ArrayList<>();
+        forEachRecord(file, malformed, records::add);
+        return records;
+    }
+
+    // Streaming form of readRecords(): nothing is collected, and read errors are thrown
+    // rather than reported as an empty roster.
+    static void forEachRecord(Path file, BiConsumer<String, String> malformed, Consumer<Student> into)
+            throws IOException {
+        if (RosterParser.byteParsable(Charset.defaultCharset())) {
+            streamRecords(file, new RosterParser(Charset.defaultCharset()).reportingMalformed(malformed), into);
+        } else {
+            forEachRecordBuffered(file, malformed, into);
+        }
+    }
+
+    // Same acceptance rules as loadStudentsBuffered().
+    private static void forEachRecordBuffered(Path file, BiConsumer<String, String> malformed,
+                                              Consumer<Student> into) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, Charset.defaultCharset())) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length != 5) {
+                    if (malformed != null && !line.isBlank() && !line.startsWith("#")) {
+                        malformed.accept(line, "expected 5 fields");
+                    }
+                    continue;
+                }
+                try {
+                    Integer rollNo = Integer.valueOf(parts[0].trim());
+                    Double marks = Double.valueOf(parts[4].trim());
+                    into.accept(new Student(rollNo, parts[1].trim(), parts[2].trim(),
+                            CourseDictionary.SHARED.intern(parts[3].trim()), marks));
+                } catch (NumberFormatException e) {
+                    if (malformed != null) {
+                        malformed.accept(line, "Roll No. or marks is not a number");
+                    } else {
+                        System.err.println("Skipping malformed record in file: " + line);
+                    }
+                }
+            }
+        }
+    }
+
+    // Splits the file into newline-aligned ranges parsed on separate fork-join workers.
+    // Each range yields its records in order and the ranges are applied in file order,
+    // so a repeated roll number keeps its last line.
+    public static Map<Integer, Student> loadStudentsParallel() {
+        return loadStudentsParallel(dataFile(), Runtime.getRuntime().availableProcessors());
+    }
+
+    public static Map<Integer, Student> loadStudentsParallel(Path file, int workers) {
+        Map<Integer, Student> studentMap = new HashMap<>();
+        loadStudentsParallel(file, workers, new MapStudentStore(studentMap));
         return studentMap;
     }
 
-    public static void saveStudents(Map<Integer, Student> students) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(FILE_NAME))) {
-            for (Student student : students.values()) {
-                String line = String.format("%d,%s,%s,%s,%.1f%n",
-                        student.getRollNo(),
-                        student.getName(),
-                        student.getEmail(),
-                        student.getCourse(),
-                        student.getMarks());
-                writer.write(line);
+    // Loads straight into the given store, so callers that keep an IntStudentIndex
+    // never build (and then copy) an intermediate HashMap.
+    public static <T extends StudentStore> T loadStudentsParallel(T into) {
+        return loadStudentsParallel(dataFile(), Runtime.getRuntime().availableProcessors(), into);
+    }
+
+    // Nothing reaches the store until every range has parsed, so the buffered
+    // fallback never starts from a half-filled store.
+    public static <T extends StudentStore> T loadStudentsParallel(Path file, int workers, T into) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be at least 1: " + workers);
+        }
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int ranges = (int) Math.max(1, Math.min(workers, size / MIN_PARALLEL_RANGE));
+            long[] bounds = new long[ranges + 1];
+            for (int i = 1; i < ranges; i++) {
+                bounds[i] = nextLineStart(channel, Math.max(bounds[i - 1], size * i / ranges));
+            }
+            bounds[ranges] = size;
+
+            List<Callable<List<Student>>> tasks = new ArrayList<>();
+            for (int i = 0; i < ranges; i++) {
+                long start = bounds[i];
+                long end = bounds[i + 1];
+                tasks.add(() -> {
+                    List<Student> partial = new ArrayList<>();
+                    parseRegion(channel, start, end, new RosterParser(Charset.defaultCharset()), partial::add);
+                    return partial;
+                });
+            }
+            List<List<Student>> parsed = new ArrayList<>(ranges);
+            for (Future<List<Student>> partial : pool.invokeAll(tasks)) {
+                parsed.add(partial.get());
+            }
+            for (List<Student> partial : parsed) {
+                for (Student s : partial) into.put(s.getRollNo(), s);
+            }
+            System.out.println("\nSuccessfully loaded " + into.size() + " records from " + file
+                    + " using " + ranges + " worker(s)");
+            checkTrailer(file);
+        } catch (NoSuchFileException e) {
+            System.out.println("Data file not found. Starting with an empty student list.");
+        } catch (IOException | UnsupportedOperationException | ExecutionException e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            System.err.println("Parallel load unavailable (" + cause.getMessage() + "), using buffered reader.");
+            return loadStudentsBuffered(file, into);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Parallel load interrupted.");
+        } finally {
+            pool.shutdown();
+        }
+        StudentJournal.replay(file, into);
+        return into;
+    }
+
+    // First line start at or after position.
+    private static long nextLineStart(FileChannel channel, long position) throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        long offset = position - 1;
+        long size = channel.size();
+        while (offset < size) {
+            probe.clear();
+            int read = channel.read(probe, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = probe.get(i);
+                if (b == '\n' || b == '\r') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    // Parses every line in [start, end); start must sit on a line boundary.
+    static void parseRegion(FileChannel channel, long start, long end, RosterParser parser,
+                            Consumer<Student> into) throws IOException {
+        long position = start;
+        while (position < end) {
+            long length = Math.min(MAP_WINDOW, end - position);
+            boolean last = position + length == end;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            int consumed = parser.parseLines(buffer, 0, (int) length, last, into);
+            if (consumed == 0) {
+                throw new IOException("record longer than " + MAP_WINDOW + " bytes at offset " + position);
             }
-            System.out.println("\nSuccessfully saved " + students.size() + " records to " + FILE_NAME);
+            position += consumed;
+        }
+    }
+
+    public static boolean saveStudents(Map<Integer, Student> students) {
+        return saveStudents(students.values());
+    }
+
+    public static boolean saveStudents(Collection<Student> students) {
+        return saveStudents(dataFile(), students);
+    }
+
+    // Durable: the previous file stays intact until the new one is fully on disk.
+    // Returns false if the file could not be written.
+    public static boolean saveStudents(Path file, Collection<Student> students) {
+        try {
+            writeSnapshot(file, students);
+            System.out.println("\nSuccessfully saved " + students.size() + " records to " + file);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error saving student records to file: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public static Map<Integer, Student> loadStudentsBinary(Path file) {
+        Map<Integer, Student> studentMap = new HashMap<>();
+        try {
+            studentMap = BinarySnapshot.read(file);
+            System.out.println("\nSuccessfully loaded " + studentMap.size() + " records from " + file);
+        } catch (NoSuchFileException e) {
+            System.out.println("Data file not found. Starting with an empty student list.");
+        } catch (IOException e) {
+            System.err.println("Error reading student records from file: " + e.getMessage());
+        }
+        return studentMap;
+    }
+
+    public static void saveStudentsBinary(Path file, Map<Integer, Student> students) {
+        try {
+            BinarySnapshot.write(file, students.values());
+            System.out.println("\nSuccessfully saved " + students.size() + " records to " + file);
         } catch (IOException e) {
             System.err.println("Error saving student records to file: " + e.getMessage());
         }
     }
+
+    // Writes a full snapshot next to the target, forces it to disk and moves it into
+    // place, so a crash mid-write never leaves a half-written file behind. The last
+    // line is a "#crc32=xxxxxxxx,records=N" trailer over every byte before it; record
+    // parsers skip it because it does not have five fields.
+    static void writeSnapshot(Path file, Collection<Student> students) throws IOException {
+        Path temp = tempFor(file);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE)) {
+                SnapshotWriter writer = new SnapshotWriter(channel, Charset.defaultCharset());
+                StringBuilder line = new StringBuilder(128);
+                long records = 0;
+                for (Student student : students) {
+                    line.setLength(0);
+                    appendRecord(line, student);
+                    writer.write(line);
+                    records++;
+                }
+                writer.finish(records);
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        syncDirectory(file);
+    }
+
+    private static final AtomicLong TEMP_SEQUENCE = new AtomicLong();
+
+    // A temp file of its own for every writer, so a background compaction and a
+    // final save of the same snapshot never share (and truncate) one temp file.
+    static Path tempFor(Path file) {
+        return file.resolveSibling(file.getFileName() + "." + ProcessHandle.current().pid()
+                + "-" + TEMP_SEQUENCE.incrementAndGet() + ".tmp");
+    }
+
+    // Makes the rename itself durable. Not every platform lets a directory be opened.
+    static void syncDirectory(Path file) {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | UnsupportedOperationException ignored) {
+        }
+    }
+
+    private static final boolean PLAIN_NUMBERS = plainNumberLocale();
+
+    private static boolean plainNumberLocale() {
+        java.text.DecimalFormatSymbols symbols =
+                java.text.DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT));
+        return symbols.getZeroDigit() == '0' && symbols.getDecimalSeparator() == '.';
+    }
+
+    // Same text as String.format("%d,%s,%s,%s,%.1f%n", ...), without the Formatter.
+    static void appendRecord(StringBuilder line, Student student) {
+        Double marks = student.getMarks();
+        if (!PLAIN_NUMBERS) {
+            line.append(String.format("%d,%s,%s,%s,%.1f%n", student.getRollNo(), student.getName(),
+                    student.getEmail(), student.getCourse(), marks));
+            return;
+        }
+        line.append(student.getRollNo()).append(',')
+                .append(student.getName()).append(',')
+                .append(student.getEmail()).append(',')
+                .append(student.getCourse()).append(',');
+        appendOneDecimal(line, marks);
+        line.append(System.lineSeparator());
+    }
+
+    // Exact tenths (every mark entered through the menu) are written directly;
+    // anything else goes through %.1f for its rounding.
+    private static void appendOneDecimal(StringBuilder line, Double marks) {
+        double m = marks == null ? Double.NaN : marks;
+        double tenths = m * 10;
+        if (marks != null && m >= 0 && Double.doubleToRawLongBits(m) != Double.doubleToRawLongBits(-0.0)
+                && tenths < 1e15 && tenths == Math.rint(tenths)) {
+            long t = (long) tenths;
+            line.append(t / 10).append('.').append((char) ('0' + t % 10));
+        } else {
+            line.append(String.format("%.1f", marks));
+        }
+    }
+
+    enum TrailerStatus { MISSING, VALID, CORRUPT }
+
+    // Checks the checksum trailer written by writeSnapshot(). Files saved before the
+    // trailer existed report MISSING and load as they always have.
+    static TrailerStatus verifyTrailer(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int tailLength = (int) Math.min(size, 64);
+            ByteBuffer tail = ByteBuffer.allocate(tailLength);
+            while (tail.hasRemaining()) {
+                if (channel.read(tail, size - tailLength + tail.position()) < 0) break;
+            }
+            String text = new String(tail.array(), 0, tail.position(), StandardCharsets.ISO_8859_1);
+            int at = text.lastIndexOf(TRAILER_PREFIX);
+            if (at < 0 || (at > 0 && text.charAt(at - 1) != '\n' && text.charAt(at - 1) != '\r')) {
+                return TrailerStatus.MISSING;
+            }
+            String[] fields = text.substring(at + TRAILER_PREFIX.length()).trim().split(",records=");
+            if (fields.length != 2) {
+                return TrailerStatus.CORRUPT;
+            }
+            long expected;
+            try {
+                expected = Long.parseLong(fields[0], 16);
+            } catch (NumberFormatException e) {
+                return TrailerStatus.CORRUPT;
+            }
+            long body = size - tailLength + at;
+            CRC32 crc = new CRC32();
+            long position = 0;
+            while (position < body) {
+                long length = Math.min(MAP_WINDOW, body - position);
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+                position += length;
+            }
+            return crc.getValue() == expected ? TrailerStatus.VALID : TrailerStatus.CORRUPT;
+        }
+    }
+
+    static void checkTrailer(Path file) {
+        try {
+            if (verifyTrailer(file) == TrailerStatus.CORRUPT) {
+                System.err.println("Warning: " + file + " failed its checksum; the file is torn or corrupt"
+                        + " and some records may be missing or wrong.");
+            }
+        } catch (IOException e) {
+            System.err.println("Could not verify " + file + ": " + e.getMessage());
+        }
+    }
+
+    // Encodes text into a large direct buffer and writes it to the channel in
+    // big chunks, keeping a running CRC32 of everything written.
+    private static final class SnapshotWriter {
+        private final FileChannel channel;
+        private final CharsetEncoder encoder;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER);
+        private final CRC32 crc = new CRC32();
+
+        SnapshotWriter(FileChannel channel, Charset charset) {
+            this.channel = channel;
+            // Unmappable characters become '?', as they did through FileWriter.
+            this.encoder = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        void write(CharSequence text) throws IOException {
+            CharBuffer chars = CharBuffer.wrap(text);
+            while (true) {
+                CoderResult result = encoder.encode(chars, buffer, false);
+                if (result.isOverflow()) {
+                    drain();
+                } else {
+                    break;
+                }
+            }
+        }
+
+        void finish(long records) throws IOException {
+            CharBuffer empty = CharBuffer.allocate(0);
+            while (encoder.encode(empty, buffer, true).isOverflow()) drain();
+            while (encoder.flush(buffer).isOverflow()) drain();
+            drain();
+            String trailer = String.format("%s%08x,records=%d%n", TRAILER_PREFIX, crc.getValue(), records);
+            buffer.put(trailer.getBytes(StandardCharsets.ISO_8859_1));
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+    }
 }
 
 // --- 4. Abstract Class (Lab 2) ---
 abstract class Person {
     private String name;
     private String email;
+    // name case-folded once for sorting; null when only compareToIgnoreCase will do
+    private String nameKey;
 
     public Person(String name, String email) {
         this.name = name;
         this.email = email;
+        this.nameKey = collationKey(name);
     }
     public abstract void displayInfo();
     public String getName() { return name; }
     public String getEmail() { return email; }
+    String getNameKey() { return nameKey; }
+
+    // Folds each char the way String.compareToIgnoreCase does (upper, then lower), so
+    // key.compareTo(otherKey) has the same sign as name.compareToIgnoreCase(otherName).
+    // compareToIgnoreCase folds surrogate pairs as whole code points, so those names
+    // get no key. Names that are already folded share the name instance.
+    static String collationKey(String name) {
+        if (name == null) {
+            return null;
+        }
+        char[] folded = null;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isSurrogate(c)) {
+                return null;
+            }
+            char f = Character.toLowerCase(Character.toUpperCase(c));
+            if (f != c) {
+                if (folded == null) folded = name.toCharArray();
+                folded[i] = f;
+            }
+        }
+        return folded == null ? name : new String(folded);
+    }
 }
 
 // --- 5. Student Class (Lab 1, 2, 3, 4) ---
 class Student extends Person {
-    private Integer rollNo;
+    // Primitive fields: no Integer/Double/Character box per record. hasMarks stands in for null marks.
+    private final int rollNo;
     private String course;
-    private Double marks;
-    private Character grade;
+    private double marks;
+    private boolean hasMarks;
+    private char grade;
 
     public Student(Integer rollNo, String name, String email, String course, Double marks) {
+        this(rollNo, name, email, course, marks != null, marks != null ? marks : 0.0);
+    }
+
+    // Unboxed form for the parsers, so a parsed record costs no Integer/Double.
+    Student(int rollNo, String name, String email, String course, boolean hasMarks, double marks) {
         super(name, email);
         this.rollNo = rollNo;
         this.course = course;
-        this.marks = marks;
+        this.hasMarks = hasMarks;
+        this.marks = hasMarks ? marks : 0.0;
         calculateGrade();
     }
 
     public void calculateGrade() {
-        if (marks == null || marks < 0 || marks > 100) {
-            this.grade = 'I';
+        this.grade = gradeFor(hasMarks, marks);
+    }
+
+    static char gradeFor(boolean hasMarks, double marks) {
+        if (!hasMarks || marks < 0 || marks > 100) {
+            return 'I';
         } else if (marks >= 90) {
-            this.grade = 'A';
+            return 'A';
         } else if (marks >= 80) {
-            this.grade = 'B';
+            return 'B';
         } else if (marks >= 70) {
-            this.grade = 'C';
+            return 'C';
         } else {
-            this.grade = 'D';
+            return 'D';
         }
     }
 
@@ -132,120 +692,257 @@ class Student extends Person {
         System.out.println("Name: " + getName());
         System.out.println("Email: " + getEmail());
         System.out.println("Course: " + this.course);
-        System.out.println("Marks: " + (this.marks != null ? this.marks : "N/A"));
+        System.out.println("Marks: " + (this.hasMarks ? String.valueOf(this.marks) : "N/A"));
         System.out.println("Grade: " + this.grade);
     }
 
     // Getters
     public Integer getRollNo() { return rollNo; }
     public String getCourse() { return course; }
-    public Double getMarks() { return marks; }
+    public Double getMarks() { return hasMarks ? marks : null; }
+    public Character getGrade() { return grade; }
     public void setMarks(Double marks) {
-        this.marks = marks;
+        this.hasMarks = marks != null;
+        this.marks = hasMarks ? marks : 0.0;
         calculateGrade();
     }
 
+    // Copy with new marks, for stores that publish whole records instead of mutating shared ones.
+    Student withMarks(Double newMarks) {
+        return new Student(rollNo, getName(), getEmail(), course, newMarks);
+    }
+
     public static Comparator<Student> MarksComparator = (s1, s2) -> {
-        if (s1.getMarks() == null && s2.getMarks() == null) return 0;
-        if (s1.getMarks() == null) return -1;
-        if (s2.getMarks() == null) return 1;
-        return s2.getMarks().compareTo(s1.getMarks());
+        if (!s1.hasMarks && !s2.hasMarks) return 0;
+        if (!s1.hasMarks) return -1;
+        if (!s2.hasMarks) return 1;
+        return Double.compare(s2.marks, s1.marks);
     };
 
+    // Same order as comparing names with compareToIgnoreCase, without re-folding both
+    // names on every comparison.
     public static Comparator<Student> NameComparator = (s1, s2) -> {
+        String k1 = s1.getNameKey();
+        String k2 = s2.getNameKey();
+        if (k1 != null && k2 != null) {
+            return k1.compareTo(k2);
+        }
         return s1.getName().compareToIgnoreCase(s2.getName());
     };
 }
 
 // --- 6. Interface (Lab 2) ---
 interface RecordActions {
-    void addStudent(Student s);
-    void deleteStudent(int rollNo) throws StudentNotFoundException;
-    void updateStudentMarks(int rollNo, Double newMarks) throws StudentNotFoundException;
-    void searchStudent(int rollNo) throws StudentNotFoundException;
+    boolean addStudent(Student s);
+    Student deleteStudent(int rollNo) throws StudentNotFoundException;
+    Student updateStudentMarks(int rollNo, Double newMarks) throws StudentNotFoundException;
+    Student searchStudent(int rollNo) throws StudentNotFoundException;
     void viewAllStudents(int sortOption);
-    void saveAndExit(); // <-- Requires implementation in StudentManager
+    List<Student> listStudents(int sortOption);
+    boolean saveAndExit(); // <-- Requires implementation in StudentManager; false if nothing was saved
+    ImportResult importStudents(Collection<Student> batch);
+    ImportResult importStudents(Path csvFile) throws IOException;
 }
 
 // --- 7. Service Class (Lab 2, 3, 4, 5) ---
 class StudentManager implements RecordActions {
 
-    private final Map<Integer, Student> studentMap;
+    private final StudentStore store;
     private final Scanner scanner;
+    private final StudentJournal journal;
+    private final List<RosterListener> listeners = new ArrayList<>();
+    private final ProgressListener progress;
+    private final SortedStudentIndexes sortedIndexes;
+    private final Path dataFile;
+    private AutosaveService autosave;
+    private RosterStatistics statistics;
+    private StudentSearchIndex searchIndex;
 
     public StudentManager() {
-        this.studentMap = FileUtil.loadStudents();
+        this(new ConsoleLoaderRenderer());
+    }
+
+    // Batch callers pass ProgressListener.NONE (or an async listener) so mutations
+    // no longer wait on the console animation.
+    public StudentManager(ProgressListener progress) {
+        this(progress, FileUtil.loadStudentsParallel(new IntStudentIndex()));
+    }
+
+    public StudentManager(ProgressListener progress, StudentStore store) {
+        this(progress, store, FileUtil.dataFile());
+    }
+
+    // dataFile is where saveAndExit() writes and where the journal lives beside it.
+    public StudentManager(ProgressListener progress, StudentStore store, Path dataFile) {
+        this.progress = progress;
+        this.store = store;
+        this.dataFile = dataFile;
         this.scanner = new Scanner(System.in);
+        // A disk-resident store persists its own records and must not be pulled into
+        // memory, so it runs without the journal and the in-memory sorted indexes.
+        // A columnar store keeps no Student objects at all; object indexes would add
+        // one per row, so it answers marks order from its columns instead.
+        if (store.isMemoryResident()) {
+            this.journal = new StudentJournal(dataFile);
+            listeners.add(journal);
+            if (store instanceof ColumnarStudentStore) {
+                this.sortedIndexes = null;
+            } else {
+                this.sortedIndexes = new SortedStudentIndexes(store.values());
+                listeners.add(sortedIndexes);
+            }
+        } else {
+            this.journal = null;
+            this.sortedIndexes = null;
+        }
+    }
+
+    // Roster served from dataFile.db through the on-disk B+-tree index dataFile.idx;
+    // nothing is loaded at startup. A .db that has never been written is first seeded
+    // from dataFile (and its journal), streamed record by record, so saveAndExit() can
+    // never replace dataFile with an empty roster. If seeding fails nothing is opened.
+    public static StudentManager onDisk(ProgressListener progress, Path dataFile, int cacheCapacity) throws IOException {
+        Path db = dataFile.resolveSibling(dataFile.getFileName() + ".db");
+        Path idx = dataFile.resolveSibling(dataFile.getFileName() + ".idx");
+        DiskStudentStore store = DiskStudentStore.withTreeIndex(db, idx, cacheCapacity);
+        if (store.dataFileSize() == 0) {
+            try {
+                seed(store, dataFile);
+            } catch (IOException | RuntimeException e) {
+                store.close();
+                Files.deleteIfExists(db);
+                Files.deleteIfExists(idx);
+                throw new IOException("could not seed " + db + " from " + dataFile + ": " + e.getMessage(), e);
+            }
+        }
+        return new StudentManager(progress, store, dataFile);
+    }
+
+    private static void seed(DiskStudentStore store, Path dataFile) throws IOException {
+        if (Files.exists(dataFile)) {
+            FileUtil.forEachRecord(dataFile, null, s -> store.put(s.getRollNo(), s));
+            FileUtil.checkTrailer(dataFile);
+        }
+        StudentJournal.replay(dataFile, store);
+        store.flush();
+        System.out.println("Seeded " + store.size() + " records into the disk store from " + dataFile);
+    }
+
+    // Cache counters for a disk-resident store; a memory-resident one has no cache.
+    public String storageStats() {
+        if (store instanceof DiskStudentStore) {
+            return ((DiskStudentStore) store).stats();
+        }
+        return "in-memory store, " + store.size() + " records";
+    }
+
+    // Journal writes move off the mutating thread: changed records are collected and
+    // written in one batch every interval, or sooner once maxDirty records are waiting.
+    public void enableAutosave(long interval, TimeUnit unit, int maxDirty) {
+        if (journal == null) {
+            throw new IllegalStateException("autosave needs a memory-resident store with a journal");
+        }
+        if (autosave != null) {
+            return;
+        }
+        autosave = new AutosaveService(journal, interval, unit, maxDirty);
+        listeners.set(listeners.indexOf(journal), autosave);
+    }
+
+    private void compactJournal() {
+        if (journal != null) {
+            journal.compactIfNeeded(store.values());
+        }
+    }
+
+    // Maintained index order when available, otherwise a sorted snapshot.
+    private Collection<Student> ordered(int sortOption) {
+        if (sortOption != 1 && sortOption != 2) {
+            return store.values();
+        }
+        if (sortedIndexes != null) {
+            return sortOption == 1 ? sortedIndexes.byMarks() : sortedIndexes.byName();
+        }
+        if (sortOption == 1 && store instanceof ColumnarStudentStore) {
+            return ((ColumnarStudentStore) store).sortedByMarks();
+        }
+        return Arrays.asList(ParallelViews.sorted(store.values(),
+                sortOption == 1 ? SortedViews.BY_MARKS : SortedViews.BY_NAME));
     }
 
     @Override
-    public void addStudent(Student s) {
-        if (studentMap.containsKey(s.getRollNo())) {
+    public boolean addStudent(Student s) {
+        if (store.get(s.getRollNo()) != null) {
             System.out.println("Error: Student with Roll No. " + s.getRollNo() + " already exists. Cannot add.");
-            return;
+            return false;
         }
-        Thread loaderThread = new Thread(new Loader("Adding student record"));
-        loaderThread.start();
-        try { loaderThread.join(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        progress.operationStarted("Adding student record");
 
-        studentMap.put(s.getRollNo(), s);
+        store.put(s.getRollNo(), s);
+        for (RosterListener listener : listeners) listener.studentAdded(s);
+        compactJournal();
         System.out.println("\nStudent added successfully.");
         s.displayInfo();
+        return true;
     }
 
     @Override
-    public void deleteStudent(int rollNo) throws StudentNotFoundException {
-        if (studentMap.remove(rollNo) == null) {
+    public Student deleteStudent(int rollNo) throws StudentNotFoundException {
+        Student removed = store.remove(rollNo);
+        if (removed == null) {
             throw new StudentNotFoundException(rollNo);
         }
-        Thread loaderThread = new Thread(new Loader("Deleting record"));
-        loaderThread.start();
-        try { loaderThread.join(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        for (RosterListener listener : listeners) listener.studentRemoved(removed);
+        compactJournal();
+        progress.operationStarted("Deleting record");
         System.out.println("Student with Roll No. " + rollNo + " deleted successfully.");
+        return removed;
     }
 
     @Override
-    public void updateStudentMarks(int rollNo, Double newMarks) throws StudentNotFoundException {
-        Student s = studentMap.get(rollNo);
+    public Student updateStudentMarks(int rollNo, Double newMarks) throws StudentNotFoundException {
+        Student s = store.get(rollNo);
         if (s == null) {
             throw new StudentNotFoundException(rollNo);
         }
-        Thread loaderThread = new Thread(new Loader("Updating marks"));
-        loaderThread.start();
-        try { loaderThread.join(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        progress.operationStarted("Updating marks");
 
+        Double oldMarks = s.getMarks();
         s.setMarks(newMarks);
+        store.put(rollNo, s);
+        for (RosterListener listener : listeners) listener.marksUpdated(s, oldMarks);
+        compactJournal();
         System.out.println("\nStudent with Roll No. " + rollNo + " marks updated and grade recalculated.");
         s.displayInfo();
+        return s;
     }
 
     @Override
-    public void searchStudent(int rollNo) throws StudentNotFoundException {
-        Student s = studentMap.get(rollNo);
+    public Student searchStudent(int rollNo) throws StudentNotFoundException {
+        Student s = store.get(rollNo);
         if (s == null) {
             throw new StudentNotFoundException(rollNo);
         }
         System.out.println("--- Student Found ---");
         s.displayInfo();
         System.out.println("---------------------");
+        return s;
     }
 
     @Override
     public void viewAllStudents(int sortOption) {
-        if (studentMap.isEmpty()) {
+        if (store.size() == 0) {
             System.out.println("The student list is currently empty.");
             return;
         }
 
-        List<Student> students = new ArrayList<>(studentMap.values());
-
+        // Sorted views walk the maintained indexes in order instead of re-sorting.
+        Collection<Student> students = ordered(sortOption);
         switch (sortOption) {
             case 1:
-                students.sort(Student.MarksComparator);
                 System.out.println("\n--- Sorted Student List by MARKS (Descending) ---");
                 break;
             case 2:
-                students.sort(Student.NameComparator);
                 System.out.println("\n--- Sorted Student List by NAME (Ascending) ---");
                 break;
             case 0:
@@ -254,56 +951,197 @@ class StudentManager implements RecordActions {
                 break;
         }
 
-        Iterator<Student> iterator = students.iterator();
-        while (iterator.hasNext()) {
-            iterator.next().displayInfo();
-            System.out.println("---------------------");
-        }
+        new StudentRenderer(StudentRenderer.Format.DETAIL, System.out).render(students);
     }
 
-    @Override // <-- This annotation signals implementation of the interface method
-    public void saveAndExit() {
-        // Implementation of saveAndExit() (Lab 3 & 4 requirements)
-        Thread loaderThread = new Thread(new Loader("Saving data to file"));
-        loaderThread.start();
-        try { loaderThread.join(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    @Override
+    public List<Student> listStudents(int sortOption) {
+        return new ArrayList<>(ordered(sortOption));
+    }
 
-        FileUtil.saveStudents(studentMap);
-        System.out.println("Exiting application. Goodbye!");
-        scanner.close();
+    // Validates the whole batch, then inserts the accepted records in one pass with a
+    // single progress event and no per-record console output.
+    @Override
+    public ImportResult importStudents(Collection<Student> batch) {
+        return importStudents(batch, new ImportResult());
     }
 
-    public void inputAndAddStudent() {
-        System.out.println("--- Add New Student ---");
+    private ImportResult importStudents(Collection<Student> batch, ImportResult result) {
+        List<Student> accepted = result.screen(batch, rollNo -> store.get(rollNo) != null);
+        progress.operationStarted("Importing " + accepted.size() + " student records");
+        for (Student s : accepted) {
+            store.put(s.getRollNo(), s);
+        }
+        for (RosterListener listener : listeners) listener.studentsAdded(accepted);
+        compactJournal();
+        return result;
+    }
 
-        try {
-            System.out.print("Enter Roll No (Integer): ");
-            Integer rollNo = Integer.parseInt(scanner.nextLine().trim());
+    @Override
+    public ImportResult importStudents(Path csvFile) throws IOException {
+        ImportResult result = new ImportResult();
+        return importStudents(FileUtil.readRecords(csvFile, result::malformed), result);
+    }
 
-            System.out.print("Enter Name: ");
-            String name = scanner.nextLine().trim();
+    // Built from one scan on first use, then kept current by the mutation listeners.
+    public RosterStatistics statistics() {
+        if (statistics == null) {
+            statistics = new RosterStatistics(store.values());
+            listeners.add(statistics);
+        }
+        return statistics;
+    }
 
-            System.out.print("Enter Email: ");
-            String email = scanner.nextLine().trim();
+    // Prefix/suffix search over name, email and course; built on first use like statistics().
+    // The index keeps a handful of keys per student on the heap, so a disk-resident
+    // store, whose point is to keep the roster off the heap, does not get one.
+    public StudentSearchIndex searchIndex() {
+        if (!store.isMemoryResident()) {
+            throw new IllegalStateException("search index needs a memory-resident store");
+        }
+        if (searchIndex == null) {
+            searchIndex = new StudentSearchIndex(store.values(), store::get);
+            listeners.add(searchIndex);
+        }
+        return searchIndex;
+    }
 
-            System.out.print("Enter Course: ");
-            String course = scanner.nextLine().trim();
+    // Course -> students, courses in dictionary order.
+    public Map<String, List<Student>> groupByCourse() {
+        return CourseDictionary.SHARED.groupByCourse(store.values());
+    }
 
-            System.out.print("Enter Marks (Double, 0-100): ");
-            Double marks = Double.parseDouble(scanner.nextLine().trim());
+    public List<Student> studentsInCourse(String course) {
+        return ParallelViews.inCourse(store.values(), course);
+    }
 
-            if (name.isEmpty() || course.isEmpty()) {
-                System.out.println("\nError: Name or course cannot be empty.");
-                return;
-            }
+    // Grades between best and worst inclusive, in A, B, C, D, I order.
+    public List<Student> studentsWithGrades(char best, char worst) {
+        return ParallelViews.withGrades(store.values(), best, worst);
+    }
 
-            if (marks < 0 || marks > 100) {
-                System.out.println("\nError: Invalid input. Marks must be between 0 and 100.");
-                return;
-            }
+    // Roll numbers fromRoll..toRoll inclusive, in roll order.
+    public List<Student> searchRange(int fromRoll, int toRoll) {
+        return store.range(fromRoll, toRoll);
+    }
 
-            Student newStudent = new Student(rollNo, name, email, course, marks);
-            addStudent(newStudent);
+    // Highest k by marks, best first, read off the front of the marks index
+    // (or a bounded heap over a streaming scan for disk-resident stores).
+    public List<Student> topByMarks(int k) {
+        if (sortedIndexes != null) {
+            return SortedStudentIndexes.slice(sortedIndexes.byMarks(), 0, k);
+        }
+        if (store instanceof ColumnarStudentStore) {
+            return SortedStudentIndexes.slice(((ColumnarStudentStore) store).sortedByMarks(), 0, k);
+        }
+        return SortedViews.top(store.values(), k, SortedViews.BY_MARKS);
+    }
+
+    // Aggregates: column scans on a columnar store, otherwise read from statistics().
+    public double averageMarks() {
+        if (store instanceof ColumnarStudentStore) {
+            return ((ColumnarStudentStore) store).averageMarks();
+        }
+        double sum = 0;
+        int marked = 0;
+        for (RosterStatistics.CourseSummary c : statistics().byCourse().values()) {
+            sum += c.mean * c.marked;
+            marked += c.marked;
+        }
+        return marked == 0 ? Double.NaN : sum / marked;
+    }
+
+    public Map<Character, Integer> gradeDistribution() {
+        if (store instanceof ColumnarStudentStore) {
+            return ((ColumnarStudentStore) store).gradeDistribution();
+        }
+        Map<Character, Integer> distribution = new LinkedHashMap<>();
+        statistics().gradeCounts().forEach((grade, count) -> distribution.put(grade, count.intValue()));
+        return distribution;
+    }
+
+    public Map<String, Double> averageMarksByCourse() {
+        if (store instanceof ColumnarStudentStore) {
+            return ((ColumnarStudentStore) store).averageMarksByCourse();
+        }
+        Map<String, Double> averages = new LinkedHashMap<>();
+        for (RosterStatistics.CourseSummary c : statistics().byCourse().values()) {
+            if (c.marked > 0) averages.put(c.course, c.mean);
+        }
+        return averages;
+    }
+
+    // Name-ordered page [offset, offset + limit), walked from the name index.
+    public List<Student> pageByName(int offset, int limit) {
+        if (sortedIndexes == null) {
+            return SortedViews.page(store.values(), offset, limit, SortedViews.BY_NAME);
+        }
+        return SortedStudentIndexes.slice(sortedIndexes.byName(), offset, limit);
+    }
+
+    @Override // <-- This annotation signals implementation of the interface method
+    public boolean saveAndExit() {
+        // Implementation of saveAndExit() (Lab 3 & 4 requirements)
+        progress.operationStarted("Saving data to file");
+
+        if (autosave != null) autosave.flush();
+        // A compaction still writing an older snapshot must not land on top of this save.
+        if (journal != null) journal.awaitCompaction();
+        store.flush();
+        if (!FileUtil.saveStudents(dataFile, store.values())) {
+            // The journal still holds every change since the last good snapshot.
+            System.out.println("Save failed. No records were discarded; fix the problem and save again.");
+            return false;
+        }
+        if (autosave != null) autosave.close();
+        if (journal != null) {
+            journal.close(true);
+        } else {
+            // A disk store was seeded with any journal left by the in-memory mode;
+            // dataFile now includes it, so it must not be replayed again.
+            try {
+                StudentJournal.discard(dataFile);
+            } catch (IOException e) {
+                System.err.println("Error removing journal for " + dataFile + ": " + e.getMessage());
+            }
+            System.out.println(storageStats());
+        }
+        System.out.println("Exiting application. Goodbye!");
+        scanner.close();
+        return true;
+    }
+
+    public void inputAndAddStudent() {
+        System.out.println("--- Add New Student ---");
+
+        try {
+            System.out.print("Enter Roll No (Integer): ");
+            Integer rollNo = Integer.parseInt(scanner.nextLine().trim());
+
+            System.out.print("Enter Name: ");
+            String name = scanner.nextLine().trim();
+
+            System.out.print("Enter Email: ");
+            String email = scanner.nextLine().trim();
+
+            System.out.print("Enter Course: ");
+            String course = scanner.nextLine().trim();
+
+            System.out.print("Enter Marks (Double, 0-100): ");
+            Double marks = Double.parseDouble(scanner.nextLine().trim());
+
+            if (name.isEmpty() || course.isEmpty()) {
+                System.out.println("\nError: Name or course cannot be empty.");
+                return;
+            }
+
+            if (marks < 0 || marks > 100) {
+                System.out.println("\nError: Invalid input. Marks must be between 0 and 100.");
+                return;
+            }
+
+            Student newStudent = new Student(rollNo, name, email, course, marks);
+            addStudent(newStudent);
 
         } catch (NumberFormatException e) {
             System.out.println("\nError: Invalid input format for Roll No or Marks. Please enter valid numbers.");
@@ -315,9 +1153,35 @@ class StudentManager implements RecordActions {
 
 // --- 8. Main Entry Point ---
 public class StudentManagementSystem {
+    private static final int DEFAULT_DISK_CACHE = 10_000;
 
     public static void main(String[] args) {
-        StudentManager manager = new StudentManager();
+        if (args.length == 2 && args[0].equals("--script")) {
+            ScriptRunner.run(args[1]);
+            return;
+        }
+        if (args.length >= 1 && args[0].equals("--serve")) {
+            StudentHttpService.serve(args.length > 1 ? Integer.parseInt(args[1]) : StudentHttpService.DEFAULT_PORT);
+            return;
+        }
+        StudentManager manager;
+        // --disk [cacheCapacity]: records stay in students.txt.db, only the cache is on the heap
+        if (args.length >= 1 && args[0].equals("--disk")) {
+            int cacheCapacity = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_DISK_CACHE;
+            try {
+                manager = StudentManager.onDisk(new ConsoleLoaderRenderer(), FileUtil.dataFile(), cacheCapacity);
+            } catch (IOException e) {
+                System.err.println("Could not open the disk store: " + e.getMessage());
+                return;
+            }
+        } else {
+            manager = new StudentManager();
+        }
+        // --autosave <seconds> [maxDirty]
+        if (args.length >= 2 && args[0].equals("--autosave")) {
+            int maxDirty = args.length > 2 ? Integer.parseInt(args[2]) : AutosaveService.DEFAULT_MAX_DIRTY;
+            manager.enableAutosave(Long.parseLong(args[1]), TimeUnit.SECONDS, maxDirty);
+        }
         Scanner mainScanner = new Scanner(System.in);
         int choice = -1;
 
@@ -363,7 +1227,7 @@ public class StudentManagementSystem {
                         manager.viewAllStudents(2);
                         break;
                     case 8:
-                        manager.saveAndExit();
+                        if (!manager.saveAndExit()) choice = -1;
                         break;
                     default:
                         System.out.println("Invalid choice. Please try again.");
@@ -389,4 +1253,4006 @@ public class StudentManagementSystem {
         System.out.println("8. Save and Exit (File Persistence, Threading)");
         System.out.println("======================================================");
     }
-}
\ No newline at end of file
+}
+
+// --- 9. Byte-Level Roster Parser ---
+// Reads "rollNo,name,email,course,marks" lines out of a ByteBuffer with the same
+// acceptance rules as FileUtil.loadStudents(): String.split(",") field counting,
+// String.trim() whitespace and Integer/Double.valueOf number syntax.
+final class RosterParser {
+    private static final int FIELDS = 5;
+    private static final int MAX_FAST_DIGITS = 15;
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15
+    };
+
+    private static final int COURSE_SLOTS = 64;
+    private static final int MAX_CACHED_COURSE = 64;
+
+    private final Charset charset;
+    private final int[] starts = new int[FIELDS];
+    private final int[] ends = new int[FIELDS];
+    private byte[] scratch = new byte[128];
+    // Direct-mapped cache of course bytes -> dictionary instance, so the handful of
+    // course names are matched in place instead of decoded on every line.
+    private final byte[][] courseBytes = new byte[COURSE_SLOTS][];
+    private final String[] courseValues = new String[COURSE_SLOTS];
+    private BiConsumer<String, String> malformed;
+
+    RosterParser(Charset charset) {
+        if (!byteParsable(charset)) {
+            throw new UnsupportedOperationException("charset " + charset + " cannot be parsed byte-wise");
+        }
+        this.charset = charset;
+    }
+
+    // Imports want every rejected line (with the reason) instead of a stderr message.
+    // Blank lines and '#' lines such as the snapshot trailer are never reported.
+    RosterParser reportingMalformed(BiConsumer<String, String> handler) {
+        this.malformed = handler;
+        return this;
+    }
+
+    // Delimiters, whitespace and digits can be matched on raw bytes when every byte
+    // below 0x80 decodes to the same ASCII char and no other byte decodes to ASCII:
+    // UTF-8 and single-byte ASCII supersets such as ISO-8859-1 or windows-1252.
+    static boolean byteParsable(Charset charset) {
+        if (charset.equals(StandardCharsets.UTF_8)) {
+            return true;
+        }
+        if (!charset.canEncode() || charset.newEncoder().maxBytesPerChar() != 1) {
+            return false;
+        }
+        byte[] all = new byte[256];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = (byte) i;
+        }
+        String decoded = new String(all, charset);
+        if (decoded.length() != all.length) {
+            return false;
+        }
+        for (int i = 0; i < all.length; i++) {
+            char c = decoded.charAt(i);
+            if (i < 0x80 ? c != i : c < 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Parses complete lines in [from, to) and returns the number of bytes consumed.
+    // Unless atEnd is set, a trailing line without terminator is left for the next call.
+    int parseLines(ByteBuffer buf, int from, int to, boolean atEnd, Consumer<Student> into) {
+        int lineStart = from;
+        for (int i = from; i < to; i++) {
+            byte b = buf.get(i);
+            if (b == '\n' || b == '\r') {
+                parseInto(buf, lineStart, i, into);
+                if (b == '\r' && i + 1 < to && buf.get(i + 1) == '\n') {
+                    i++;
+                }
+                lineStart = i + 1;
+            }
+        }
+        if (atEnd && lineStart < to) {
+            parseInto(buf, lineStart, to, into);
+            lineStart = to;
+        }
+        return lineStart - from;
+    }
+
+    private void parseInto(ByteBuffer buf, int from, int to, Consumer<Student> into) {
+        Student s = parseLine(buf, from, to);
+        if (s != null) {
+            into.accept(s);
+        }
+    }
+
+    // Returns null for lines the text loader would ignore or report as malformed.
+    Student parseLine(ByteBuffer buf, int from, int to) {
+        if (!split(buf, from, to)) {
+            if (malformed != null) {
+                String line = decode(buf, from, to);
+                if (!line.isBlank() && !line.startsWith("#")) malformed.accept(line, "expected 5 fields");
+            }
+            return null;
+        }
+        for (int f = 0; f < FIELDS; f++) {
+            trim(buf, f);
+        }
+        try {
+            int rollNo = parseInt(buf, starts[0], ends[0]);
+            double marks = parseDouble(buf, starts[4], ends[4]);
+            return new Student(rollNo, decode(buf, starts[1], ends[1]), decode(buf, starts[2], ends[2]),
+                    course(buf, starts[3], ends[3]), true, marks);
+        } catch (NumberFormatException e) {
+            if (malformed != null) {
+                malformed.accept(decode(buf, from, to), "Roll No. or marks is not a number");
+            } else {
+                System.err.println("Skipping malformed record in file: " + decode(buf, from, to));
+            }
+            return null;
+        }
+    }
+
+    // String.split(",") drops trailing empty fields, so "a,b,c,d,e,," still has five.
+    private boolean split(ByteBuffer buf, int from, int to) {
+        int field = 0;
+        int lastNonEmpty = -1;
+        int fieldStart = from;
+        for (int i = from; i <= to; i++) {
+            if (i == to || buf.get(i) == ',') {
+                if (i > fieldStart) {
+                    if (field >= FIELDS) {
+                        return false;
+                    }
+                    lastNonEmpty = field;
+                }
+                if (field < FIELDS) {
+                    starts[field] = fieldStart;
+                    ends[field] = i;
+                }
+                field++;
+                fieldStart = i + 1;
+            }
+        }
+        return lastNonEmpty == FIELDS - 1;
+    }
+
+    private void trim(ByteBuffer buf, int f) {
+        int start = starts[f];
+        int end = ends[f];
+        while (start < end && (buf.get(start) & 0xFF) <= ' ') start++;
+        while (end > start && (buf.get(end - 1) & 0xFF) <= ' ') end--;
+        starts[f] = start;
+        ends[f] = end;
+    }
+
+    private int parseInt(ByteBuffer buf, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buf.get(i) == '-' || buf.get(i) == '+')) {
+            negative = buf.get(i) == '-';
+            i++;
+        }
+        int digits = to - i;
+        if (digits < 1 || digits > 9) {
+            return Integer.parseInt(decode(buf, from, to));
+        }
+        int value = 0;
+        for (; i < to; i++) {
+            int d = buf.get(i) - '0';
+            if (d < 0 || d > 9) {
+                return Integer.parseInt(decode(buf, from, to));
+            }
+            value = value * 10 + d;
+        }
+        return negative ? -value : value;
+    }
+
+    // Plain decimals with at most 15 significant digits are exact as long / 10^n,
+    // and a single IEEE division rounds them the same way Double.parseDouble does.
+    private double parseDouble(ByteBuffer buf, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buf.get(i) == '-' || buf.get(i) == '+')) {
+            negative = buf.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenPoint = false;
+        for (; i < to; i++) {
+            byte b = buf.get(i);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (seenPoint) fractionDigits++;
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                return Double.parseDouble(decode(buf, from, to));
+            }
+        }
+        if (digits == 0 || digits > MAX_FAST_DIGITS) {
+            return Double.parseDouble(decode(buf, from, to));
+        }
+        double value = mantissa / POW10[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private String course(ByteBuffer buf, int from, int to) {
+        int length = to - from;
+        if (length > MAX_CACHED_COURSE) {
+            return CourseDictionary.SHARED.intern(decode(buf, from, to));
+        }
+        int hash = length;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + buf.get(i);
+        }
+        int slot = (hash ^ (hash >>> 16)) & (COURSE_SLOTS - 1);
+        byte[] cached = courseBytes[slot];
+        if (cached != null && cached.length == length) {
+            int i = 0;
+            while (i < length && cached[i] == buf.get(from + i)) i++;
+            if (i == length) {
+                return courseValues[slot];
+            }
+        }
+        String value = CourseDictionary.SHARED.intern(decode(buf, from, to));
+        courseBytes[slot] = Arrays.copyOf(scratch, length);
+        courseValues[slot] = value;
+        return value;
+    }
+
+    private String decode(ByteBuffer buf, int from, int to) {
+        int length = to - from;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            scratch[i] = buf.get(from + i);
+        }
+        return new String(scratch, 0, length, charset);
+    }
+}
+
+// --- 10. Roster Change Notifications ---
+interface RosterListener {
+    void studentAdded(Student s);
+
+    default void studentsAdded(Collection<Student> batch) {
+        for (Student s : batch) studentAdded(s);
+    }
+
+    void studentRemoved(Student s);
+    void marksUpdated(Student s, Double oldMarks);
+}
+
+// --- 11. Write-Ahead Journal ---
+// Appends one small line per mutation instead of rewriting the whole snapshot:
+//   A,rollNo,name,email,course,marks   D,rollNo   U,rollNo,marks
+// Once the journal grows past a threshold it is rotated and a background thread
+// folds it into a fresh snapshot. Loaders replay snapshot, rotated journal, journal.
+class StudentJournal implements RosterListener {
+    private static final int DEFAULT_COMPACT_THRESHOLD = 10_000;
+
+    private final Path snapshot;
+    private final Path journalFile;
+    private final Path compactingFile;
+    private final int compactThreshold;
+    private final ExecutorService compactor;
+    private BufferedWriter writer;
+    private int entries;
+    private Future<?> pendingCompaction;
+
+    public StudentJournal(Path snapshot) {
+        this(snapshot, DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    public StudentJournal(Path snapshot, int compactThreshold) {
+        this.snapshot = snapshot;
+        this.journalFile = journalFor(snapshot);
+        this.compactingFile = compactingFor(snapshot);
+        this.compactThreshold = compactThreshold;
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "journal-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    static Path journalFor(Path snapshot) {
+        return snapshot.resolveSibling(snapshot.getFileName() + ".journal");
+    }
+
+    static Path compactingFor(Path snapshot) {
+        return snapshot.resolveSibling(snapshot.getFileName() + ".journal.compacting");
+    }
+
+    // Drops both journal files once the snapshot has been rewritten to include them.
+    static void discard(Path snapshot) throws IOException {
+        Files.deleteIfExists(journalFor(snapshot));
+        Files.deleteIfExists(compactingFor(snapshot));
+    }
+
+    @Override
+    public void studentAdded(Student s) {
+        append(addEntry(s));
+    }
+
+    @Override
+    public void studentRemoved(Student s) {
+        append("D," + s.getRollNo());
+    }
+
+    @Override
+    public void marksUpdated(Student s, Double oldMarks) {
+        append("U," + s.getRollNo() + "," + s.getMarks());
+    }
+
+    // One flush for the whole batch instead of one per record.
+    @Override
+    public synchronized void studentsAdded(Collection<Student> batch) {
+        try {
+            for (Student s : batch) {
+                write(addEntry(s));
+            }
+            writer().flush();
+        } catch (IOException e) {
+            System.err.println("Error writing to journal " + journalFile + ": " + e.getMessage());
+        }
+    }
+
+    // Coalesced changes from AutosaveService: an "A" entry replaces the record on
+    // replay, so it doubles as an upsert. One flush for the lot.
+    public synchronized void writeChanges(Collection<Student> upserted, Collection<Integer> removed) {
+        try {
+            for (Student s : upserted) {
+                write(addEntry(s));
+            }
+            for (Integer rollNo : removed) {
+                write("D," + rollNo);
+            }
+            writer().flush();
+        } catch (IOException e) {
+            System.err.println("Error writing to journal " + journalFile + ": " + e.getMessage());
+        }
+    }
+
+    private static String addEntry(Student s) {
+        return "A," + s.getRollNo() + "," + s.getName() + "," + s.getEmail() + ","
+                + s.getCourse() + "," + s.getMarks();
+    }
+
+    private synchronized void append(String entry) {
+        try {
+            write(entry);
+            writer().flush();
+        } catch (IOException e) {
+            System.err.println("Error writing to journal " + journalFile + ": " + e.getMessage());
+        }
+    }
+
+    private void write(String entry) throws IOException {
+        BufferedWriter w = writer();
+        w.write(entry);
+        w.newLine();
+        entries++;
+    }
+
+    private BufferedWriter writer() throws IOException {
+        if (writer == null) {
+            writer = Files.newBufferedWriter(journalFile, Charset.defaultCharset(),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        return writer;
+    }
+
+    // Called on the mutating thread: only the roster copy and the journal rotation
+    // happen here, the snapshot itself is written in the background.
+    public synchronized void compactIfNeeded(Collection<Student> roster) {
+        if (entries < compactThreshold || (pendingCompaction != null && !pendingCompaction.isDone())) {
+            return;
+        }
+        List<Student> copy = new ArrayList<>(roster);
+        try {
+            closeWriter();
+            if (Files.exists(compactingFile)) {
+                // left over from an interrupted compaction: keep its entries ahead of ours
+                Files.write(compactingFile, Files.readAllBytes(journalFile), StandardOpenOption.APPEND);
+                Files.delete(journalFile);
+            } else {
+                Files.move(journalFile, compactingFile);
+            }
+            entries = 0;
+        } catch (IOException e) {
+            System.err.println("Error rotating journal " + journalFile + ": " + e.getMessage());
+            return;
+        }
+        pendingCompaction = compactor.submit(() -> {
+            try {
+                FileUtil.writeSnapshot(snapshot, copy);
+                Files.deleteIfExists(compactingFile);
+            } catch (IOException e) {
+                System.err.println("Error compacting journal into " + snapshot + ": " + e.getMessage());
+            }
+        });
+    }
+
+    public synchronized void awaitCompaction() {
+        if (pendingCompaction == null) {
+            return;
+        }
+        try {
+            pendingCompaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Error compacting journal into " + snapshot + ": " + e.getCause().getMessage());
+        }
+    }
+
+    // Waits for any running compaction; discard removes the journal once the caller
+    // has written a full snapshot of its own.
+    public synchronized void close(boolean discard) {
+        compactor.shutdown();
+        try {
+            if (pendingCompaction != null) pendingCompaction.get();
+            closeWriter();
+            if (discard) discard(snapshot);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | IOException e) {
+            System.err.println("Error closing journal " + journalFile + ": " + e.getMessage());
+        }
+    }
+
+    private void closeWriter() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    public static void replay(Path snapshot, Map<Integer, Student> into) {
+        replay(snapshot, new MapStudentStore(into));
+    }
+
+    public static void replay(Path snapshot, StudentStore into) {
+        replayFile(compactingFor(snapshot), into);
+        replayFile(journalFor(snapshot), into);
+    }
+
+    private static void replayFile(Path file, StudentStore into) {
+        if (!Files.exists(file)) {
+            return;
+        }
+        int applied = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, Charset.defaultCharset())) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",");
+                try {
+                    if (parts[0].equals("A") && parts.length == 6) {
+                        int rollNo = Integer.parseInt(parts[1]);
+                        into.put(rollNo, new Student(rollNo, parts[2], parts[3],
+                                CourseDictionary.SHARED.intern(parts[4]), parseMarks(parts[5])));
+                    } else if (parts[0].equals("D") && parts.length == 2) {
+                        into.remove(Integer.parseInt(parts[1]));
+                    } else if (parts[0].equals("U") && parts.length == 3) {
+                        // put() rather than setMarks(): stores that hand out copies must see the change
+                        int rollNo = Integer.parseInt(parts[1]);
+                        Student s = into.get(rollNo);
+                        if (s != null) into.put(rollNo, s.withMarks(parseMarks(parts[2])));
+                    } else {
+                        System.err.println("Skipping malformed journal entry: " + line);
+                        continue;
+                    }
+                    applied++;
+                } catch (NumberFormatException e) {
+                    System.err.println("Skipping malformed journal entry: " + line);
+                }
+            }
+            System.out.println("Replayed " + applied + " journal entries from " + file);
+        } catch (IOException e) {
+            System.err.println("Error replaying journal " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static Double parseMarks(String value) {
+        return value.equals("null") ? null : Double.valueOf(value);
+    }
+}
+
+// --- 12. Binary Snapshot Format ---
+// Header: magic "STDB", version, record count, CRC32 of the record section.
+// Record: int rollNo, byte marks flag, double marks, then name, email, course as
+// length-prefixed UTF-8 (length -1 for null). Marks keep their full double value.
+final class BinarySnapshot {
+    static final int MAGIC = 0x53544442;
+    static final short VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 2 + 4 + 8;
+    private static final int BUFFER_SIZE = 1 << 16;
+    // rollNo + marks flag + marks + three string lengths
+    private static final int MIN_RECORD_SIZE = 4 + 1 + 8 + 3 * 4;
+
+    private BinarySnapshot() {
+    }
+
+    // Same durability steps as FileUtil.writeSnapshot(): a private temp file, forced
+    // to disk (header included) before the atomic move, and removed if anything fails.
+    public static void write(Path file, Collection<Student> students) throws IOException {
+        Path temp = FileUtil.tempFor(file);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE)) {
+                CRC32 crc = new CRC32();
+                int count = 0;
+                channel.write(ByteBuffer.allocate(HEADER_SIZE));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                        new CheckedOutputStream(Channels.newOutputStream(channel), crc), BUFFER_SIZE));
+                for (Student s : students) {
+                    out.writeInt(s.getRollNo());
+                    Double marks = s.getMarks();
+                    out.writeBoolean(marks != null);
+                    out.writeDouble(marks != null ? marks : 0.0);
+                    writeString(out, s.getName());
+                    writeString(out, s.getEmail());
+                    writeString(out, s.getCourse());
+                    count++;
+                }
+                out.flush();
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putShort(VERSION).putInt(count).putLong(crc.getValue()).flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        FileUtil.syncDirectory(file);
+    }
+
+    public static Map<Integer, Student> read(Path file) throws IOException {
+        long size = Files.size(file);
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE)) {
+            DataInputStream header = new DataInputStream(raw);
+            if (header.readInt() != MAGIC) {
+                throw new IOException(file + " is not a binary student snapshot");
+            }
+            short version = header.readShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + file);
+            }
+            int count = header.readInt();
+            long expectedCrc = header.readLong();
+            // The header is not covered by the CRC, so check the count against the file
+            // size before sizing anything from it.
+            if (count < 0 || count > (size - HEADER_SIZE) / MIN_RECORD_SIZE) {
+                throw new IOException("Record count " + count + " does not fit " + file + ", snapshot is corrupt");
+            }
+
+            CRC32 crc = new CRC32();
+            DataInputStream in = new DataInputStream(new CheckedInputStream(raw, crc));
+            Map<Integer, Student> studentMap = new HashMap<>(Math.max(16, (int) (count / 0.75f) + 1));
+            for (int i = 0; i < count; i++) {
+                int rollNo = in.readInt();
+                boolean hasMarks = in.readBoolean();
+                double marks = in.readDouble();
+                String name = readString(in, size);
+                String email = readString(in, size);
+                String course = CourseDictionary.SHARED.intern(readString(in, size));
+                studentMap.put(rollNo, new Student(rollNo, name, email, course, hasMarks ? marks : null));
+            }
+            if (crc.getValue() != expectedCrc) {
+                throw new IOException("Checksum mismatch in " + file + ", snapshot is corrupt");
+            }
+            return studentMap;
+        } catch (EOFException e) {
+            throw new IOException("Truncated snapshot " + file, e);
+        }
+    }
+
+    // Unlike FileUtil.loadStudents(), a missing or unreadable text file is an error
+    // here rather than an empty roster written over the target.
+    public static void convertTextToBinary(Path text, Path binary) throws IOException {
+        Map<Integer, Student> students = new LinkedHashMap<>();
+        for (Student s : FileUtil.readRecords(text)) {
+            students.put(s.getRollNo(), s);
+        }
+        StudentJournal.replay(text, students);
+        write(binary, students.values());
+    }
+
+    public static void convertBinaryToText(Path binary, Path text) throws IOException {
+        FileUtil.writeSnapshot(text, read(binary).values());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in, long maxLength) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > maxLength) {
+            throw new IOException("String length " + length + " exceeds the snapshot size, snapshot is corrupt");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
+
+// --- 13. Progress Reporting ---
+interface ProgressListener {
+    ProgressListener NONE = operation -> { };
+
+    void operationStarted(String operation);
+
+    // Hands events to a single background thread so the caller never waits on rendering.
+    static ProgressListener async(ProgressListener delegate) {
+        return new AsyncProgressListener(delegate);
+    }
+}
+
+// Interactive renderer: the animated Loader, blocking as the console menu always did.
+class ConsoleLoaderRenderer implements ProgressListener {
+    @Override
+    public void operationStarted(String operation) {
+        Thread loaderThread = new Thread(new Loader(operation));
+        loaderThread.start();
+        try { loaderThread.join(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    }
+}
+
+class AsyncProgressListener implements ProgressListener {
+    private final ProgressListener delegate;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "progress-renderer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public AsyncProgressListener(ProgressListener delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void operationStarted(String operation) {
+        try {
+            executor.execute(() -> delegate.operationStarted(operation));
+        } catch (RejectedExecutionException e) {
+            // renderer already shut down; progress is best-effort
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
+
+// --- 14. Concurrent Service Implementation ---
+// Meant to sit behind request threads, so mutations return results and print nothing.
+// Reads go straight to a ConcurrentHashMap and never lock. Writes for the same roll
+// number serialize on one of a fixed set of lock stripes. Records are never mutated
+// in place: an update publishes a new Student, so marks and grade are always seen
+// together and readers keep a consistent (possibly older) copy. Because the copies are
+// immutable they can key two skip lists, kept in step under the same stripe lock, so a
+// sorted page walks offset + limit entries instead of the whole roster.
+class ConcurrentStudentManager implements RecordActions {
+    private final ConcurrentHashMap<Integer, Student> students;
+    private final ConcurrentSkipListMap<Student, Student> byMarks = new ConcurrentSkipListMap<>(SortedViews.BY_MARKS);
+    private final ConcurrentSkipListMap<Student, Student> byName = new ConcurrentSkipListMap<>(SortedViews.BY_NAME);
+    private final ReentrantLock[] stripes;
+
+    public ConcurrentStudentManager(Map<Integer, Student> initial) {
+        this(initial, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    public ConcurrentStudentManager(Map<Integer, Student> initial, int stripeCount) {
+        this.students = new ConcurrentHashMap<>();
+        for (Student s : initial.values()) {
+            Student copy = s.withMarks(s.getMarks());
+            students.put(copy.getRollNo(), copy);
+            indexAdded(copy);
+        }
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    private ReentrantLock stripeFor(int rollNo) {
+        int h = rollNo * 0x9E3779B9;
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    // Callers hold the record's stripe lock.
+    private void indexAdded(Student s) {
+        byMarks.put(s, s);
+        byName.put(s, s);
+    }
+
+    private void indexRemoved(Student s) {
+        byMarks.remove(s);
+        byName.remove(s);
+    }
+
+    // The new copy goes in before the old one comes out, so a concurrent page may show
+    // the record twice for a moment but never drops it.
+    private void indexUpdated(Student old, Student updated) {
+        byMarks.put(updated, updated);
+        if (SortedViews.BY_MARKS.compare(old, updated) != 0) {
+            byMarks.remove(old);
+        }
+        byName.put(updated, updated);
+    }
+
+    private boolean insert(Student s) {
+        Student copy = s.withMarks(s.getMarks());
+        if (students.putIfAbsent(copy.getRollNo(), copy) != null) {
+            return false;
+        }
+        indexAdded(copy);
+        return true;
+    }
+
+    @Override
+    public boolean addStudent(Student s) {
+        ReentrantLock lock = stripeFor(s.getRollNo());
+        lock.lock();
+        try {
+            return insert(s);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Student deleteStudent(int rollNo) throws StudentNotFoundException {
+        ReentrantLock lock = stripeFor(rollNo);
+        lock.lock();
+        try {
+            Student removed = students.remove(rollNo);
+            if (removed == null) {
+                throw new StudentNotFoundException(rollNo);
+            }
+            indexRemoved(removed);
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Student updateStudentMarks(int rollNo, Double newMarks) throws StudentNotFoundException {
+        return updateStudentMarks(rollNo, current -> newMarks);
+    }
+
+    // Atomic read-modify-write of one record's marks; the grade is recomputed on the new copy.
+    public Student updateStudentMarks(int rollNo, UnaryOperator<Double> change) throws StudentNotFoundException {
+        ReentrantLock lock = stripeFor(rollNo);
+        lock.lock();
+        try {
+            Student current = students.get(rollNo);
+            if (current == null) {
+                throw new StudentNotFoundException(rollNo);
+            }
+            Student updated = current.withMarks(change.apply(current.getMarks()));
+            students.put(rollNo, updated);
+            indexUpdated(current, updated);
+            return updated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Student findStudent(int rollNo) throws StudentNotFoundException {
+        Student s = students.get(rollNo);
+        if (s == null) {
+            throw new StudentNotFoundException(rollNo);
+        }
+        return s;
+    }
+
+    @Override
+    public Student searchStudent(int rollNo) throws StudentNotFoundException {
+        Student s = findStudent(rollNo);
+        System.out.println("--- Student Found ---");
+        s.displayInfo();
+        System.out.println("---------------------");
+        return s;
+    }
+
+    private Collection<Student> ordered(int sortOption) {
+        return sortOption == 1 ? byMarks.values() : sortOption == 2 ? byName.values() : students.values();
+    }
+
+    @Override
+    public List<Student> listStudents(int sortOption) {
+        return new ArrayList<>(ordered(sortOption));
+    }
+
+    // Walks offset + limit entries of the chosen order; nothing is copied or sorted.
+    public List<Student> page(int sortOption, int offset, int limit) {
+        return SortedStudentIndexes.slice(ordered(sortOption), offset, limit);
+    }
+
+    public List<Student> topByMarks(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        return page(1, 0, k);
+    }
+
+    public List<Student> pageByName(int offset, int limit) {
+        return page(2, offset, limit);
+    }
+
+    @Override
+    public void viewAllStudents(int sortOption) {
+        List<Student> snapshot = listStudents(sortOption);
+        if (snapshot.isEmpty()) {
+            System.out.println("The student list is currently empty.");
+            return;
+        }
+        new StudentRenderer(StudentRenderer.Format.DETAIL, System.out).render(snapshot);
+    }
+
+    // The roster was loaded with the journal replayed into it, so once the snapshot
+    // is written the journal is stale and must go, or the next load replays it over
+    // newer marks.
+    @Override
+    public boolean saveAndExit() {
+        Path file = FileUtil.dataFile();
+        if (!FileUtil.saveStudents(file, new ArrayList<>(students.values()))) {
+            return false;
+        }
+        try {
+            StudentJournal.discard(file);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error removing journal for " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public ImportResult importStudents(Collection<Student> batch) {
+        return importStudents(batch, new ImportResult());
+    }
+
+    private ImportResult importStudents(Collection<Student> batch, ImportResult result) {
+        for (Student s : result.screen(batch, students::containsKey)) {
+            ReentrantLock lock = stripeFor(s.getRollNo());
+            lock.lock();
+            try {
+                if (!insert(s)) {
+                    result.lostRace(s);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public ImportResult importStudents(Path csvFile) throws IOException {
+        ImportResult result = new ImportResult();
+        return importStudents(FileUtil.readRecords(csvFile, result::malformed), result);
+    }
+
+    public int size() {
+        return students.size();
+    }
+}
+
+// Lost-update check for ConcurrentStudentManager. <threads> workers hammer a few hot
+// roll numbers with +1 increments while adding and deleting their own rolls; every
+// increment and every surviving add must be there at the end, or it exits with 1.
+// Run: java ConcurrentStressTest [threads] [opsPerThread] [hotRolls]
+class ConcurrentStressTest {
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int ops = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int hot = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+
+        Map<Integer, Student> roster = new HashMap<>();
+        for (int r = 1; r <= hot; r++) roster.put(r, new Student(r, "Hot " + r, "hot" + r + "@x.com", "CS", 0.0));
+        ConcurrentStudentManager manager = new ConcurrentStudentManager(roster);
+
+        long[][] increments = new long[threads][hot];
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < ops; i++) {
+                        int r = (i * 31 + id) % hot;
+                        manager.updateStudentMarks(r + 1, m -> m + 1);
+                        increments[id][r]++;
+                        if (i % 16 == 0) {
+                            int own = 1_000_000 + id * ops + i;
+                            if (!manager.addStudent(new Student(own, "Own " + own, "own@x.com", "EE", 50.0))) {
+                                errors.incrementAndGet();
+                            }
+                            if (i % 32 == 0) manager.deleteStudent(own);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (StudentNotFoundException e) {
+                    errors.incrementAndGet();
+                }
+            }, "stress-" + t);
+            workers[t].start();
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        for (Thread w : workers) w.join();
+        double elapsed = (System.nanoTime() - started) / 1e9;
+
+        long lost = 0;
+        for (int r = 0; r < hot; r++) {
+            long expected = 0;
+            for (long[] perThread : increments) expected += perThread[r];
+            double actual = manager.findStudent(r + 1).getMarks();
+            if (actual != expected) {
+                System.err.printf("roll %d: expected %d increments, found %.0f%n", r + 1, expected, actual);
+                lost += Math.abs(expected - (long) actual);
+            }
+        }
+        long kept = 0;
+        for (int i = 0; i < ops; i += 16) {
+            if (i % 32 != 0) kept++;
+        }
+        int expectedSize = hot + (int) (kept * threads);
+        if (manager.size() != expectedSize) {
+            System.err.printf("size: expected %d, found %d%n", expectedSize, manager.size());
+            lost++;
+        }
+
+        System.out.printf("%d threads x %d ops over %d hot rolls in %.2f s%n", threads, ops, hot, elapsed);
+        if (lost > 0 || errors.get() > 0) {
+            System.err.println("FAILED: " + lost + " lost updates, " + errors.get() + " unexpected errors");
+            System.exit(1);
+        }
+        System.out.println("OK: no lost updates");
+    }
+}
+
+// --- 15. Roll-Number Keyed Storage ---
+interface StudentStore {
+    Student get(int rollNo);
+    Student put(int rollNo, Student s);
+    Student remove(int rollNo);
+    int size();
+    Collection<Student> values();
+
+    default boolean isMemoryResident() {
+        return true;
+    }
+
+    // Students with fromRoll <= rollNo <= toRoll, in roll number order.
+    default List<Student> range(int fromRoll, int toRoll) {
+        List<Student> result = new ArrayList<>();
+        for (Student s : values()) {
+            if (s.getRollNo() >= fromRoll && s.getRollNo() <= toRoll) result.add(s);
+        }
+        result.sort(Comparator.comparing(Student::getRollNo));
+        return result;
+    }
+
+    default void flush() {
+    }
+}
+
+// Open-addressing table keyed by int, with linear probing. Keys live in an int[], so
+// lookups, inserts and removals never box, and there is no per-entry node object.
+// Subclasses keep their values in an array indexed by slot; the table tells them
+// when a value has to move (backward-shift deletion, growth) or a slot empties.
+abstract class IntKeyTable {
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int[] keys;
+    private boolean[] used;
+    private int size;
+    private int mask;
+    private int resizeAt;
+
+    IntKeyTable(int expectedSize) {
+        allocate(Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int slot(int key, int mask) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    final int capacity() {
+        return keys.length;
+    }
+
+    // Slot holding key, or -1 when absent.
+    final int find(int key) {
+        for (int i = slot(key, mask); used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) return i;
+        }
+        return -1;
+    }
+
+    // Slot holding key; an absent key gets a free slot whose value is still unset.
+    // May grow the table, so callers index their value array only after it returns.
+    final int claim(int key) {
+        int i = slot(key, mask);
+        while (used[i]) {
+            if (keys[i] == key) return i;
+            i = (i + 1) & mask;
+        }
+        if (size >= resizeAt) {
+            grow();
+            return claim(key);
+        }
+        used[i] = true;
+        keys[i] = key;
+        size++;
+        return i;
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones.
+    final void delete(int i) {
+        int hole = i;
+        for (int j = (hole + 1) & mask; used[j]; j = (j + 1) & mask) {
+            int home = slot(keys[j], mask);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                moveValue(j, hole);
+                hole = j;
+            }
+        }
+        used[hole] = false;
+        clearValue(hole);
+        size--;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        boolean[] oldUsed = used;
+        allocate(oldKeys.length << 1);
+        int[] target = new int[oldKeys.length];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (!oldUsed[i]) {
+                target[i] = -1;
+                continue;
+            }
+            int j = slot(oldKeys[i], mask);
+            while (used[j]) j = (j + 1) & mask;
+            used[j] = true;
+            keys[j] = oldKeys[i];
+            target[i] = j;
+        }
+        relocateValues(target, keys.length);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                used[i] = false;
+                clearValue(i);
+            }
+        }
+        size = 0;
+    }
+
+    abstract void moveValue(int from, int to);
+
+    abstract void clearValue(int slot);
+
+    // After growth the value in old slot i belongs in slot target[i] (-1: empty).
+    abstract void relocateValues(int[] target, int capacity);
+}
+
+// int -> Student table for the in-memory roster.
+class IntStudentIndex extends IntKeyTable implements StudentStore {
+    private Student[] values;
+
+    public IntStudentIndex() {
+        this(16);
+    }
+
+    public IntStudentIndex(int expectedSize) {
+        super(expectedSize);
+        values = new Student[capacity()];
+    }
+
+    public IntStudentIndex(Map<Integer, Student> students) {
+        this(students.size());
+        for (Map.Entry<Integer, Student> e : students.entrySet()) {
+            put(e.getKey(), e.getValue());
+        }
+    }
+
+    @Override
+    public Student get(int rollNo) {
+        int i = find(rollNo);
+        return i < 0 ? null : values[i];
+    }
+
+    @Override
+    public Student put(int rollNo, Student s) {
+        if (s == null) {
+            throw new IllegalArgumentException("null student for Roll No. " + rollNo);
+        }
+        int i = claim(rollNo);
+        Student previous = values[i];
+        values[i] = s;
+        return previous;
+    }
+
+    @Override
+    public Student remove(int rollNo) {
+        int i = find(rollNo);
+        if (i < 0) {
+            return null;
+        }
+        Student removed = values[i];
+        delete(i);
+        return removed;
+    }
+
+    @Override
+    void moveValue(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    void clearValue(int slot) {
+        values[slot] = null;
+    }
+
+    @Override
+    void relocateValues(int[] target, int capacity) {
+        Student[] old = values;
+        values = new Student[capacity];
+        for (int i = 0; i < old.length; i++) {
+            if (target[i] >= 0) values[target[i]] = old[i];
+        }
+    }
+
+    @Override
+    public Collection<Student> values() {
+        return new AbstractCollection<Student>() {
+            @Override
+            public Iterator<Student> iterator() {
+                return new Iterator<Student>() {
+                    private int next = advance(0);
+
+                    private int advance(int from) {
+                        while (from < values.length && values[from] == null) from++;
+                        return from;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < values.length;
+                    }
+
+                    @Override
+                    public Student next() {
+                        if (next >= values.length) throw new NoSuchElementException();
+                        Student s = values[next];
+                        next = advance(next + 1);
+                        return s;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return IntStudentIndex.this.size();
+            }
+        };
+    }
+}
+
+class MapStudentStore implements StudentStore {
+    private final Map<Integer, Student> map;
+
+    public MapStudentStore(Map<Integer, Student> map) {
+        this.map = map;
+    }
+
+    @Override public Student get(int rollNo) { return map.get(rollNo); }
+    @Override public Student put(int rollNo, Student s) { return map.put(rollNo, s); }
+    @Override public Student remove(int rollNo) { return map.remove(rollNo); }
+    @Override public int size() { return map.size(); }
+    @Override public Collection<Student> values() { return map.values(); }
+}
+
+// Retained-heap comparison of HashMap<Integer, Student> vs IntStudentIndex for the
+// same Student objects. Run: java HeapFootprintReport [records]
+class HeapFootprintReport {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Student[] students = new Student[n];
+        for (int i = 0; i < n; i++) {
+            students[i] = new Student(1_000_000 + i, "Student" + i, "s" + i + "@example.com", "Btech CSE Core", (i % 1000) / 10.0);
+        }
+        long base = usedHeap();
+
+        Map<Integer, Student> map = new HashMap<>();
+        for (Student s : students) map.put(s.getRollNo(), s);
+        long mapBytes = usedHeap() - base;
+        Reference.reachabilityFence(map);
+        map = null;
+
+        base = usedHeap();
+        IntStudentIndex index = new IntStudentIndex();
+        for (Student s : students) index.put(s.getRollNo(), s);
+        long indexBytes = usedHeap() - base;
+        Reference.reachabilityFence(index);
+
+        System.out.printf("%d records%n", n);
+        System.out.printf("HashMap<Integer, Student>: %,d bytes (%.1f bytes/entry)%n", mapBytes, (double) mapBytes / n);
+        System.out.printf("IntStudentIndex:           %,d bytes (%.1f bytes/entry)%n", indexBytes, (double) indexBytes / n);
+        Reference.reachabilityFence(students);
+        students = null;
+        index = null;
+
+        // Course strings: one copy per record (what split()/trim() used to produce)
+        // against the dictionary's shared instances.
+        String[] courses = {"Btech CSE Core", "Btech CSE AI/ML", "Btech ECE", "Btech ME", "MBA"};
+        base = usedHeap();
+        Student[] copied = new Student[n];
+        for (int i = 0; i < n; i++) {
+            copied[i] = new Student(i, "", "", new String(courses[i % courses.length].toCharArray()), 50.0);
+        }
+        long copiedBytes = usedHeap() - base;
+        Reference.reachabilityFence(copied);
+        copied = null;
+
+        base = usedHeap();
+        Student[] interned = new Student[n];
+        for (int i = 0; i < n; i++) {
+            interned[i] = new Student(i, "", "", CourseDictionary.SHARED.intern(new String(courses[i % courses.length].toCharArray())), 50.0);
+        }
+        long internedBytes = usedHeap() - base;
+        Reference.reachabilityFence(interned);
+        System.out.printf("Students, course per record: %,d bytes (%.1f bytes/record)%n", copiedBytes, (double) copiedBytes / n);
+        System.out.printf("Students, interned course:   %,d bytes (%.1f bytes/record)%n", internedBytes, (double) internedBytes / n);
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try { Thread.sleep(50); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
+
+// --- 16. Columnar Student Store ---
+// Struct-of-arrays layout: one row per student across parallel primitive columns,
+// name and course dictionary-encoded to int codes. Roll number lookups go through
+// an int -> row index; aggregates scan the marks/grades columns directly.
+// get() materializes a Student copy, so callers write changes back with put().
+class ColumnarStudentStore implements StudentStore {
+    private static final char[] GRADES = {'A', 'B', 'C', 'D', 'I'};
+
+    private int[] rollNos;
+    private double[] marks;
+    private boolean[] hasMarks;
+    private byte[] grades;
+    private int[] nameCodes;
+    private int[] courseCodes;
+    private String[] emails;
+    private int rows;
+    private int version;
+
+    private final IntRowIndex rowIndex = new IntRowIndex();
+    private final StringDictionary names = new StringDictionary();
+    private final StringDictionary courses = new StringDictionary();
+
+    public ColumnarStudentStore() {
+        this(16);
+    }
+
+    public ColumnarStudentStore(int capacity) {
+        allocate(Math.max(4, capacity));
+    }
+
+    public ColumnarStudentStore(Map<Integer, Student> students) {
+        this(students.size());
+        for (Map.Entry<Integer, Student> e : students.entrySet()) {
+            put(e.getKey(), e.getValue());
+        }
+    }
+
+    private void allocate(int capacity) {
+        rollNos = rollNos == null ? new int[capacity] : Arrays.copyOf(rollNos, capacity);
+        marks = marks == null ? new double[capacity] : Arrays.copyOf(marks, capacity);
+        hasMarks = hasMarks == null ? new boolean[capacity] : Arrays.copyOf(hasMarks, capacity);
+        grades = grades == null ? new byte[capacity] : Arrays.copyOf(grades, capacity);
+        nameCodes = nameCodes == null ? new int[capacity] : Arrays.copyOf(nameCodes, capacity);
+        courseCodes = courseCodes == null ? new int[capacity] : Arrays.copyOf(courseCodes, capacity);
+        emails = emails == null ? new String[capacity] : Arrays.copyOf(emails, capacity);
+    }
+
+    private static byte gradeCode(char grade) {
+        switch (grade) {
+            case 'A': return 0;
+            case 'B': return 1;
+            case 'C': return 2;
+            case 'D': return 3;
+            default: return 4;
+        }
+    }
+
+    @Override
+    public Student get(int rollNo) {
+        int row = rowIndex.get(rollNo);
+        return row < 0 ? null : materialize(row);
+    }
+
+    private Student materialize(int row) {
+        return new Student(rollNos[row], names.decode(nameCodes[row]), emails[row],
+                courses.decode(courseCodes[row]), hasMarks[row] ? marks[row] : null);
+    }
+
+    @Override
+    public Student put(int rollNo, Student s) {
+        int row = rowIndex.get(rollNo);
+        Student previous = null;
+        version++;
+        if (row < 0) {
+            if (rows == rollNos.length) {
+                allocate(rows << 1);
+            }
+            row = rows++;
+            rowIndex.put(rollNo, row);
+        } else {
+            previous = materialize(row);
+        }
+        Double m = s.getMarks();
+        rollNos[row] = rollNo;
+        hasMarks[row] = m != null;
+        marks[row] = m != null ? m : 0.0;
+        grades[row] = gradeCode(Student.gradeFor(m != null, marks[row]));
+        nameCodes[row] = names.encode(s.getName());
+        courseCodes[row] = courses.encode(s.getCourse());
+        emails[row] = s.getEmail();
+        return previous;
+    }
+
+    // The last row moves into the hole so the columns stay dense.
+    @Override
+    public Student remove(int rollNo) {
+        int row = rowIndex.remove(rollNo);
+        if (row < 0) {
+            return null;
+        }
+        Student removed = materialize(row);
+        version++;
+        int last = --rows;
+        if (row != last) {
+            rollNos[row] = rollNos[last];
+            marks[row] = marks[last];
+            hasMarks[row] = hasMarks[last];
+            grades[row] = grades[last];
+            nameCodes[row] = nameCodes[last];
+            courseCodes[row] = courseCodes[last];
+            emails[row] = emails[last];
+            rowIndex.put(rollNos[row], row);
+        }
+        emails[last] = null;
+        return removed;
+    }
+
+    @Override
+    public int size() {
+        return rows;
+    }
+
+    @Override
+    public Collection<Student> values() {
+        List<Student> all = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            all.add(materialize(row));
+        }
+        return all;
+    }
+
+    public double averageMarks() {
+        double sum = 0;
+        int counted = 0;
+        for (int row = 0; row < rows; row++) {
+            if (hasMarks[row]) {
+                sum += marks[row];
+                counted++;
+            }
+        }
+        return counted == 0 ? Double.NaN : sum / counted;
+    }
+
+    public double maxMarks() {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int row = 0; row < rows; row++) {
+            if (hasMarks[row] && marks[row] > max) max = marks[row];
+        }
+        return max;
+    }
+
+    public Map<Character, Integer> gradeDistribution() {
+        int[] counts = new int[GRADES.length];
+        for (int row = 0; row < rows; row++) {
+            counts[grades[row]]++;
+        }
+        Map<Character, Integer> distribution = new LinkedHashMap<>();
+        for (int g = 0; g < GRADES.length; g++) {
+            distribution.put(GRADES[g], counts[g]);
+        }
+        return distribution;
+    }
+
+    public Map<String, Double> averageMarksByCourse() {
+        int courseCount = courses.size();
+        double[] sums = new double[courseCount];
+        int[] counts = new int[courseCount];
+        for (int row = 0; row < rows; row++) {
+            int code = courseCodes[row];
+            if (hasMarks[row] && code >= 0) {
+                sums[code] += marks[row];
+                counts[code]++;
+            }
+        }
+        Map<String, Double> averages = new LinkedHashMap<>();
+        for (int code = 0; code < courseCount; code++) {
+            if (counts[code] > 0) averages.put(courses.decode(code), sums[code] / counts[code]);
+        }
+        return averages;
+    }
+
+    // Same order as Student.MarksComparator, ties in row order. Only an int[] of row
+    // numbers is sorted; each Student is materialized when get() reaches it. Rows move
+    // on remove(), so the view is invalidated by the next put() or remove().
+    public List<Student> sortedByMarks() {
+        int[] order = new int[rows];
+        int unmarked = 0;
+        for (int row = 0; row < rows; row++) {
+            if (!hasMarks[row]) order[unmarked++] = row;
+        }
+        int next = unmarked;
+        for (int row = 0; row < rows; row++) {
+            if (hasMarks[row]) order[next++] = row;
+        }
+        sortByMarks(order, new int[rows], unmarked, rows);
+        int expectedVersion = version;
+        return new AbstractList<Student>() {
+            @Override
+            public Student get(int index) {
+                if (version != expectedVersion) throw new ConcurrentModificationException();
+                return materialize(order[index]);
+            }
+
+            @Override
+            public int size() {
+                return order.length;
+            }
+        };
+    }
+
+    // Stable merge sort of order[from, to) by descending marks.
+    private void sortByMarks(int[] order, int[] scratch, int from, int to) {
+        if (to - from < 2) return;
+        int mid = (from + to) >>> 1;
+        sortByMarks(order, scratch, from, mid);
+        sortByMarks(order, scratch, mid, to);
+        if (Double.compare(marks[order[mid - 1]], marks[order[mid]]) >= 0) return;
+        System.arraycopy(order, from, scratch, from, to - from);
+        int i = from;
+        int j = mid;
+        for (int k = from; k < to; k++) {
+            if (j >= to || (i < mid && Double.compare(marks[scratch[i]], marks[scratch[j]]) >= 0)) {
+                order[k] = scratch[i++];
+            } else {
+                order[k] = scratch[j++];
+            }
+        }
+    }
+}
+
+// Roll number -> row index for ColumnarStudentStore; -1 means absent.
+class IntRowIndex extends IntKeyTable {
+    private int[] rows;
+
+    IntRowIndex() {
+        super(16);
+        rows = new int[capacity()];
+    }
+
+    public int get(int key) {
+        int i = find(key);
+        return i < 0 ? -1 : rows[i];
+    }
+
+    public void put(int key, int row) {
+        int i = claim(key);
+        rows[i] = row;
+    }
+
+    public int remove(int key) {
+        int i = find(key);
+        if (i < 0) return -1;
+        int removed = rows[i];
+        delete(i);
+        return removed;
+    }
+
+    @Override
+    void moveValue(int from, int to) {
+        rows[to] = rows[from];
+    }
+
+    @Override
+    void clearValue(int slot) {
+    }
+
+    @Override
+    void relocateValues(int[] target, int capacity) {
+        int[] old = rows;
+        rows = new int[capacity];
+        for (int i = 0; i < old.length; i++) {
+            if (target[i] >= 0) rows[target[i]] = old[i];
+        }
+    }
+}
+
+// Maps each distinct string to a small int code; -1 encodes null.
+class StringDictionary {
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    public int encode(String value) {
+        if (value == null) return -1;
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    public String decode(int code) {
+        return code < 0 ? null : values.get(code);
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
+
+// --- 17. Bounded Sorted Views ---
+// Top-K selection with a size-K heap: O(N log K) instead of a full O(N log N) sort.
+final class SortedViews {
+    // Roll number breaks ties so pages are stable between calls.
+    static final Comparator<Student> BY_MARKS = Student.MarksComparator.thenComparing(Student::getRollNo);
+    static final Comparator<Student> BY_NAME = Student.NameComparator.thenComparing(Student::getRollNo);
+
+    private SortedViews() {
+    }
+
+    static List<Student> top(Collection<Student> students, int k, Comparator<Student> order) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        if (k == 0) {
+            return new ArrayList<>();
+        }
+        // Max-heap on "order", so the head is the worst of the current best k.
+        PriorityQueue<Student> heap = new PriorityQueue<>(Math.min(k, Math.max(1, students.size())), order.reversed());
+        for (Student s : students) {
+            if (heap.size() < k) {
+                heap.add(s);
+            } else if (order.compare(s, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(s);
+            }
+        }
+        List<Student> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result;
+    }
+
+    static List<Student> page(Collection<Student> students, int offset, int limit, Comparator<Student> order) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset and limit must not be negative");
+        }
+        List<Student> head = top(students, (int) Math.min(Integer.MAX_VALUE, (long) offset + limit), order);
+        return offset >= head.size() ? new ArrayList<>() : new ArrayList<>(head.subList(offset, head.size()));
+    }
+}
+
+// --- 18. Maintained Secondary Indexes ---
+// Kept in step with every add, delete and marks update, so sorted listings are
+// in-order traversals. Both orders match MarksComparator / NameComparator, with the
+// roll number as a tie-break.
+class SortedStudentIndexes implements RosterListener {
+    // Marks change, so the skip list is keyed by an immutable copy of (marks, rollNo).
+    private static final class MarksKey implements Comparable<MarksKey> {
+        final boolean hasMarks;
+        final double marks;
+        final int rollNo;
+
+        MarksKey(Double marks, int rollNo) {
+            this.hasMarks = marks != null;
+            this.marks = hasMarks ? marks : 0.0;
+            this.rollNo = rollNo;
+        }
+
+        @Override
+        public int compareTo(MarksKey o) {
+            if (hasMarks != o.hasMarks) return hasMarks ? 1 : -1;
+            int c = hasMarks ? Double.compare(o.marks, marks) : 0;
+            return c != 0 ? c : Integer.compare(rollNo, o.rollNo);
+        }
+    }
+
+    private final ConcurrentSkipListMap<MarksKey, Student> byMarks = new ConcurrentSkipListMap<>();
+    // Names never change, so the Student itself is a stable key.
+    private final TreeMap<Student, Student> byName = new TreeMap<>(SortedViews.BY_NAME);
+
+    public SortedStudentIndexes(Collection<Student> students) {
+        for (Student s : students) {
+            studentAdded(s);
+        }
+    }
+
+    @Override
+    public void studentAdded(Student s) {
+        byMarks.put(new MarksKey(s.getMarks(), s.getRollNo()), s);
+        byName.put(s, s);
+    }
+
+    @Override
+    public void studentRemoved(Student s) {
+        byMarks.remove(new MarksKey(s.getMarks(), s.getRollNo()));
+        byName.remove(s);
+    }
+
+    @Override
+    public void marksUpdated(Student s, Double oldMarks) {
+        byMarks.remove(new MarksKey(oldMarks, s.getRollNo()));
+        byMarks.put(new MarksKey(s.getMarks(), s.getRollNo()), s);
+        byName.put(s, s);
+    }
+
+    public Collection<Student> byMarks() {
+        return Collections.unmodifiableCollection(byMarks.values());
+    }
+
+    public Collection<Student> byName() {
+        return Collections.unmodifiableCollection(byName.values());
+    }
+
+    static List<Student> slice(Collection<Student> ordered, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset and limit must not be negative");
+        }
+        List<Student> page = new ArrayList<>(Math.min(limit, 1024));
+        Iterator<Student> it = ordered.iterator();
+        for (int skipped = 0; skipped < offset && it.hasNext(); skipped++) {
+            it.next();
+        }
+        while (page.size() < limit && it.hasNext()) {
+            page.add(it.next());
+        }
+        return page;
+    }
+}
+
+// --- 19. Benchmark Harness ---
+// Self-contained microbenchmarks (no JMH on this classpath): warm-up iterations,
+// then timed iterations reporting ops/s and bytes allocated per op on the measuring
+// thread (work handed to pool threads, e.g. the parallel loader, is not counted).
+// Scratch files go to a temp directory that is removed when the run ends.
+// Run: java StudentBenchmarks [sizes...]   e.g. java StudentBenchmarks 1000 100000 10000000
+class StudentBenchmarks {
+    interface Operation {
+        void run(int i) throws Exception;
+    }
+
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURED_ITERATIONS = 5;
+    private static final PrintStream CONSOLE = System.out;
+    private static final PrintStream DISCARD = new PrintStream(OutputStream.nullOutputStream());
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[]{1_000, 100_000};
+        Path dir = Files.createTempDirectory("student-bench");
+        try {
+            CONSOLE.printf("%-32s %10s %16s %16s%n", "benchmark", "rows", "ops/s", "bytes/op");
+            for (int size : sizes) {
+                runSuite(dir, size);
+            }
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    // Deepest paths first, so each directory is empty by the time it is deleted.
+    private static void deleteTree(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(p);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not remove benchmark directory " + dir + ": " + e.getMessage());
+        }
+    }
+
+    private static void runSuite(Path dir, int size) throws Exception {
+        List<Student> roster = RosterGenerator.generate(size, 42);
+        Path file = dir.resolve("students-" + size + ".txt");
+        FileUtil.writeSnapshot(file, roster);
+        Map<Integer, Student> loaded = new HashMap<>();
+        for (Student s : roster) loaded.put(s.getRollNo(), s);
+
+        int fileOps = Math.max(1, 1_000_000 / size);
+        measure("FileUtil.loadStudents", size, fileOps, i -> FileUtil.loadStudents(file));
+        measure("FileUtil.loadStudentsBuffered", size, fileOps, i -> FileUtil.loadStudentsBuffered(file));
+        measure("FileUtil.loadStudentsMapped", size, fileOps, i -> FileUtil.loadStudentsMapped(file));
+        measure("FileUtil.loadStudentsParallel", size, fileOps,
+                i -> FileUtil.loadStudentsParallel(file, Runtime.getRuntime().availableProcessors()));
+        printAllocationProfile(file, size);
+        Path saveTarget = dir.resolve("save-" + size + ".txt");
+        measure("FileUtil.saveStudents", size, fileOps, i -> FileUtil.saveStudents(saveTarget, roster));
+        // The save path before it became durable: in-place truncate, Formatter per line, no fsync.
+        measure("BufferedWriter save (old)", size, fileOps, i -> {
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(saveTarget.toFile()))) {
+                for (Student s : roster) {
+                    writer.write(String.format("%d,%s,%s,%s,%.1f%n", s.getRollNo(), s.getName(),
+                            s.getEmail(), s.getCourse(), s.getMarks()));
+                }
+            }
+        });
+
+        StudentManager manager = new StudentManager(ProgressListener.NONE, new IntStudentIndex(loaded),
+                dir.resolve("manager-" + size + ".txt"));
+        int[] rolls = roster.stream().mapToInt(Student::getRollNo).toArray();
+        measure("StudentManager.searchStudent", size, 100_000, i -> manager.searchStudent(rolls[i % rolls.length]));
+        measure("StudentManager.updateMarks", size, 10_000,
+                i -> manager.updateStudentMarks(rolls[i % rolls.length], (i % 1001) / 10.0));
+        int viewOps = Math.max(1, 100_000 / size);
+        measure("viewAllStudents(marks)", size, viewOps, i -> manager.viewAllStudents(1));
+        measure("viewAllStudents(name)", size, viewOps, i -> manager.viewAllStudents(2));
+        measure("MarksComparator full sort", size, viewOps,
+                i -> new ArrayList<>(roster).sort(Student.MarksComparator));
+        measure("NameComparator full sort", size, viewOps,
+                i -> new ArrayList<>(roster).sort(Student.NameComparator));
+        // Forced onto the fork-join pool; the default threshold would keep small rosters sequential.
+        measure("MarksComparator parallelSort", size, viewOps,
+                i -> ParallelViews.sorted(roster, Student.MarksComparator, 0));
+        measure("NameComparator parallelSort", size, viewOps,
+                i -> ParallelViews.sorted(roster, Student.NameComparator, 0));
+        measure("course filter (sequential)", size, viewOps,
+                i -> ParallelViews.inCourse(roster, "MBA", Integer.MAX_VALUE));
+        measure("course filter (parallel)", size, viewOps, i -> ParallelViews.inCourse(roster, "MBA", 0));
+        measure("grade filter A-B (sequential)", size, viewOps,
+                i -> ParallelViews.withGrades(roster, 'A', 'B', Integer.MAX_VALUE));
+        measure("grade filter A-B (parallel)", size, viewOps, i -> ParallelViews.withGrades(roster, 'A', 'B', 0));
+
+        StudentSearchIndex search = new StudentSearchIndex(roster, loaded::get);
+        String[] prefixes = {"ary", "priya 1", "rah", "student1000", "vik"};
+        measure("search name prefix (limit 20)", size, 100_000,
+                i -> search.nameStartsWith(prefixes[i % prefixes.length], 20));
+        measure("search email suffix (limit 20)", size, 100_000,
+                i -> search.emailEndsWith((i % 1000) + "@example.com", 20));
+        measure("scan name prefix (limit 20)", size, viewOps, i -> {
+            String prefix = prefixes[i % prefixes.length];
+            List<Student> found = new ArrayList<>();
+            for (Student s : roster) {
+                if (found.size() < 20 && s.getName().toLowerCase(Locale.ROOT).startsWith(prefix)) found.add(s);
+            }
+        });
+
+        // Printing throughput against a stream shaped like System.out (small buffer, autoflush).
+        try (PrintStream console = consoleLikeSink()) {
+            measure("displayInfo per line", size, viewOps, i -> {
+                for (Student s : roster) {
+                    s.displayInfo();
+                    System.out.println("---------------------");
+                }
+            }, console);
+            for (StudentRenderer.Format format : StudentRenderer.Format.values()) {
+                measure("StudentRenderer " + format, size, viewOps,
+                        i -> new StudentRenderer(format, System.out).render(roster), console);
+            }
+        }
+    }
+
+    // Bytes allocated per record by the single-threaded loaders. "records only" parses
+    // without building the map, which separates the parser from HashMap/Integer costs.
+    private static void printAllocationProfile(Path file, int rows) throws Exception {
+        Operation[] ops = {
+                i -> FileUtil.loadStudentsBuffered(file),
+                i -> FileUtil.loadStudents(file),
+                i -> FileUtil.loadStudentsMapped(file),
+                i -> FileUtil.streamRecords(file, new RosterParser(Charset.defaultCharset()), s -> { }),
+        };
+        String[] names = {"buffered reader + split", "streaming window", "mapped", "streaming, records only"};
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        System.setOut(DISCARD);
+        System.setErr(DISCARD);
+        try {
+            for (int k = 0; k < ops.length; k++) {
+                for (int warmup = 0; warmup < WARMUP_ITERATIONS; warmup++) ops[k].run(warmup);
+                long before = threads.getThreadAllocatedBytes(threadId);
+                ops[k].run(0);
+                long bytes = threads.getThreadAllocatedBytes(threadId) - before;
+                CONSOLE.printf("  alloc/record %-24s %10d %16.1f%n", names[k], rows, (double) bytes / rows);
+            }
+        } finally {
+            System.setOut(CONSOLE);
+            System.setErr(CONSOLE);
+        }
+    }
+
+    private static PrintStream consoleLikeSink() throws IOException {
+        Path devNull = Paths.get("/dev/null");
+        OutputStream target = Files.isWritable(devNull)
+                ? new FileOutputStream(devNull.toFile())
+                : OutputStream.nullOutputStream();
+        return new PrintStream(new BufferedOutputStream(target, 128), true);
+    }
+
+    static void measure(String name, int rows, int opsPerIteration, Operation op) throws Exception {
+        measure(name, rows, opsPerIteration, op, DISCARD);
+    }
+
+    // sink stands in for System.out while the operation runs.
+    static void measure(String name, int rows, int opsPerIteration, Operation op, PrintStream sink) throws Exception {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long totalNanos = 0;
+        long totalBytes = 0;
+        System.setOut(sink);
+        System.setErr(DISCARD);
+        try {
+            for (int iteration = 0; iteration < WARMUP_ITERATIONS + MEASURED_ITERATIONS; iteration++) {
+                long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+                long start = System.nanoTime();
+                for (int i = 0; i < opsPerIteration; i++) {
+                    op.run(i);
+                }
+                long elapsed = System.nanoTime() - start;
+                long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+                if (iteration >= WARMUP_ITERATIONS) {
+                    totalNanos += elapsed;
+                    totalBytes += bytes;
+                }
+            }
+        } finally {
+            System.setOut(CONSOLE);
+            System.setErr(CONSOLE);
+        }
+        long ops = (long) opsPerIteration * MEASURED_ITERATIONS;
+        CONSOLE.printf("%-32s %10d %16.1f %16.1f%n", name, rows, ops / (totalNanos / 1e9), (double) totalBytes / ops);
+    }
+}
+
+// Deterministic synthetic rosters for benchmarks and footprint reports.
+final class RosterGenerator {
+    private static final String[] COURSES = {
+            "Btech CSE Core", "Btech CSE AI/ML", "Btech ECE", "Btech ME", "Btech Civil", "BBA", "MBA", "BSc Physics"
+    };
+    private static final String[] FIRST_NAMES = {
+            "Aryan", "Priya", "Rahul", "Sneha", "Vikram", "Ananya", "Rohan", "Isha", "Karan", "Meera"
+    };
+
+    private RosterGenerator() {
+    }
+
+    static List<Student> generate(int count, long seed) {
+        Random random = new Random(seed);
+        List<Student> roster = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int rollNo = 100_000 + i;
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + Integer.toString(random.nextInt(1 << 20), 36);
+            String email = "student" + rollNo + "@example.com";
+            String course = COURSES[random.nextInt(COURSES.length)];
+            roster.add(new Student(rollNo, name, email, course, random.nextInt(1001) / 10.0));
+        }
+        return roster;
+    }
+}
+
+// --- 20. Bulk Import ---
+// Outcome of one importStudents() call: what went in and why the rest did not.
+class ImportResult {
+    private static final int MAX_REPORTED = 100;
+
+    private int imported;
+    private int malformed;
+    private int invalid;
+    private int duplicateInStore;
+    private int duplicateInBatch;
+    private final List<String> rejections = new ArrayList<>();
+
+    interface ExistingCheck {
+        boolean exists(int rollNo);
+    }
+
+    // Runs the same checks as interactive input and returns the records safe to insert.
+    // The first occurrence of a roll number in the batch wins; later ones are rejected.
+    List<Student> screen(Collection<Student> batch, ExistingCheck existing) {
+        List<Student> accepted = new ArrayList<>(batch.size());
+        Set<Integer> seen = new HashSet<>(Math.max(16, (int) (batch.size() / 0.75f) + 1));
+        for (Student s : batch) {
+            if (s == null || s.getName() == null || s.getName().isEmpty()
+                    || s.getCourse() == null || s.getCourse().isEmpty()) {
+                invalid++;
+                reject(s, "name or course is empty");
+            } else if (s.getMarks() != null && (s.getMarks() < 0 || s.getMarks() > 100)) {
+                invalid++;
+                reject(s, "marks must be between 0 and 100");
+            } else if (!seen.add(s.getRollNo())) {
+                duplicateInBatch++;
+                reject(s, "duplicate Roll No. within the batch");
+            } else if (existing.exists(s.getRollNo())) {
+                duplicateInStore++;
+                reject(s, "Roll No. already exists");
+            } else {
+                accepted.add(s);
+                imported++;
+            }
+        }
+        return accepted;
+    }
+
+    // Another writer added the same roll number between screening and insert.
+    void lostRace(Student s) {
+        imported--;
+        duplicateInStore++;
+        reject(s, "Roll No. already exists");
+    }
+
+    // A CSV line that never became a Student; see FileUtil.readRecords(Path, BiConsumer).
+    void malformed(String line, String reason) {
+        malformed++;
+        if (rejections.size() < MAX_REPORTED) {
+            rejections.add("Malformed row \"" + line + "\": " + reason);
+        }
+    }
+
+    private void reject(Student s, String reason) {
+        if (rejections.size() < MAX_REPORTED) {
+            rejections.add((s == null ? "null record" : "Roll No. " + s.getRollNo()) + ": " + reason);
+        }
+    }
+
+    public int getImported() { return imported; }
+    public int getMalformed() { return malformed; }
+    public int getInvalid() { return invalid; }
+    public int getDuplicateInStore() { return duplicateInStore; }
+    public int getDuplicateInBatch() { return duplicateInBatch; }
+    public int getRejected() { return malformed + invalid + duplicateInStore + duplicateInBatch; }
+    public List<String> getRejections() { return Collections.unmodifiableList(rejections); }
+
+    @Override
+    public String toString() {
+        return "Imported " + imported + " record(s), rejected " + getRejected()
+                + " (malformed: " + malformed + ", invalid: " + invalid + ", already stored: " + duplicateInStore
+                + ", repeated in batch: " + duplicateInBatch + ")";
+    }
+}
+
+// --- 21. Script / Batch Mode ---
+// java StudentManagementSystem --script <file | ->
+// One command per line, no menu, no loader animation; '#' starts a comment.
+//   add <rollNo>,<name>,<email>,<course>,<marks>
+//   update <rollNo> <marks>      delete <rollNo>      search <rollNo>
+//   sort <none|marks|name>       top <k>              page <offset> <limit>
+//   import <csv path>            stats                save
+//   find <name|word|email|domain|course> <text>
+// Each command is timed; a per-command summary is printed at the end. "save"
+// behaves like menu option 8 and ends the script.
+class ScriptRunner {
+    private final StudentManager manager;
+    private final Map<String, long[]> timings = new LinkedHashMap<>();
+    private int failures;
+
+    ScriptRunner(StudentManager manager) {
+        this.manager = manager;
+    }
+
+    static void run(String source) {
+        ScriptRunner runner = new ScriptRunner(new StudentManager(ProgressListener.NONE));
+        try (BufferedReader reader = source.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in))
+                : Files.newBufferedReader(Paths.get(source), Charset.defaultCharset())) {
+            runner.execute(reader);
+        } catch (IOException e) {
+            System.err.println("Error reading script " + source + ": " + e.getMessage());
+        }
+        runner.printSummary();
+    }
+
+    void execute(BufferedReader reader) throws IOException {
+        String line;
+        int lineNo = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s+", 2);
+            String command = parts[0].toLowerCase();
+            String arguments = parts.length > 1 ? parts[1] : "";
+            long start = System.nanoTime();
+            boolean keepGoing = true;
+            try {
+                keepGoing = dispatch(command, arguments);
+            } catch (StudentNotFoundException e) {
+                failures++;
+                System.out.println(e.getMessage());
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                failures++;
+                System.out.println("Line " + lineNo + ": invalid arguments for '" + command + "': " + arguments);
+            } catch (IllegalArgumentException e) {
+                failures++;
+                System.out.println("Line " + lineNo + ": " + e.getMessage());
+            } catch (NoSuchFileException e) {
+                failures++;
+                System.out.println("Line " + lineNo + ": file not found: " + e.getFile());
+            } catch (IOException e) {
+                // e.g. an unreadable import file; the script keeps going like any other failed command
+                failures++;
+                System.out.println("Line " + lineNo + ": I/O error in '" + command + "': " + e.getMessage());
+            }
+            long elapsed = System.nanoTime() - start;
+            long[] stats = timings.computeIfAbsent(command, k -> new long[2]);
+            stats[0]++;
+            stats[1] += elapsed;
+            System.out.printf("[%10.3f ms] %s%n", elapsed / 1e6, line);
+            if (!keepGoing) {
+                break;
+            }
+        }
+    }
+
+    private boolean dispatch(String command, String arguments) throws StudentNotFoundException, IOException {
+        String[] args = arguments.isEmpty() ? new String[0] : arguments.split("\\s+");
+        switch (command) {
+            case "add": {
+                String[] fields = arguments.split(",");
+                if (fields.length != 5) {
+                    throw new IllegalArgumentException("add expects rollNo,name,email,course,marks");
+                }
+                Double marks = Double.valueOf(fields[4].trim());
+                if (marks < 0 || marks > 100) {
+                    throw new IllegalArgumentException("Marks must be between 0 and 100.");
+                }
+                manager.addStudent(new Student(Integer.valueOf(fields[0].trim()), fields[1].trim(),
+                        fields[2].trim(), fields[3].trim(), marks));
+                return true;
+            }
+            case "update": {
+                Double marks = Double.valueOf(args[1]);
+                if (marks < 0 || marks > 100) {
+                    throw new IllegalArgumentException("Marks must be between 0 and 100.");
+                }
+                manager.updateStudentMarks(Integer.parseInt(args[0]), marks);
+                return true;
+            }
+            case "delete":
+                manager.deleteStudent(Integer.parseInt(args[0]));
+                return true;
+            case "search":
+                manager.searchStudent(Integer.parseInt(args[0]));
+                return true;
+            case "sort":
+                manager.viewAllStudents(sortOption(args.length > 0 ? args[0] : "none"));
+                return true;
+            case "top":
+                print(manager.topByMarks(Integer.parseInt(args[0])));
+                return true;
+            case "page":
+                print(manager.pageByName(Integer.parseInt(args[0]), Integer.parseInt(args[1])));
+                return true;
+            case "import": {
+                ImportResult result = manager.importStudents(Paths.get(arguments));
+                System.out.println(result);
+                for (String rejection : result.getRejections()) {
+                    System.out.println("  " + rejection);
+                }
+                return true;
+            }
+            case "stats":
+                manager.statistics().print();
+                return true;
+            case "find":
+                print(find(args[0], arguments.substring(args[0].length()).trim()));
+                return true;
+            case "save":
+                if (!manager.saveAndExit()) {
+                    failures++;
+                }
+                return false;
+            default:
+                throw new IllegalArgumentException("unknown command '" + command + "'");
+        }
+    }
+
+    private static int sortOption(String key) {
+        switch (key.toLowerCase()) {
+            case "marks": return 1;
+            case "name": return 2;
+            case "none": return 0;
+            default: throw new IllegalArgumentException("sort expects none, marks or name");
+        }
+    }
+
+    private List<Student> find(String field, String text) {
+        StudentSearchIndex index = manager.searchIndex();
+        int limit = StudentSearchIndex.DEFAULT_LIMIT;
+        switch (field.toLowerCase()) {
+            case "name": return index.nameStartsWith(text, limit);
+            case "word": return index.nameWordStartsWith(text, limit);
+            case "email": return index.emailStartsWith(text, limit);
+            case "domain": return index.emailEndsWith(text, limit);
+            case "course": return index.courseStartsWith(text, limit);
+            default: throw new IllegalArgumentException("find expects name, word, email, domain or course");
+        }
+    }
+
+    private static void print(List<Student> students) {
+        new StudentRenderer(StudentRenderer.Format.DETAIL, System.out).render(students);
+    }
+
+    void printSummary() {
+        System.out.println("\n--- Script Timings ---");
+        System.out.printf("%-8s %8s %14s %14s%n", "command", "count", "total ms", "avg ms");
+        for (Map.Entry<String, long[]> e : timings.entrySet()) {
+            long count = e.getValue()[0];
+            long nanos = e.getValue()[1];
+            System.out.printf("%-8s %8d %14.3f %14.3f%n", e.getKey(), count, nanos / 1e6, nanos / 1e6 / count);
+        }
+        if (failures > 0) {
+            System.out.println(failures + " command(s) failed.");
+        }
+    }
+}
+
+// --- 22. Buffered Record Rendering ---
+// Formats records into one reusable StringBuilder and hands the stream a large
+// encoded chunk at a time, instead of several println calls per record.
+// DETAIL reproduces displayInfo() plus the separator line used by the listings.
+class StudentRenderer {
+    enum Format { DETAIL, TABLE, CSV, JSON }
+
+    private static final int CHUNK_CHARS = 1 << 16;
+    private static final String NL = System.lineSeparator();
+    private static final String SEPARATOR = "---------------------";
+
+    private final Format format;
+    private final PrintStream out;
+    // Both buffers start small and grow to at most about one chunk, so rendering a
+    // single record (e.g. an HTTP response) stays cheap.
+    private final StringBuilder buffer = new StringBuilder(1024);
+    private final CharsetEncoder encoder;
+    private ByteBuffer bytes = ByteBuffer.allocate(0);
+
+    public StudentRenderer(Format format, PrintStream out) {
+        this(format, out, Charset.defaultCharset());
+    }
+
+    public StudentRenderer(Format format, PrintStream out, Charset charset) {
+        this.format = format;
+        this.out = out;
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    public void render(Iterable<Student> students) {
+        header();
+        boolean first = true;
+        for (Student s : students) {
+            record(s, first);
+            first = false;
+            if (buffer.length() >= CHUNK_CHARS) {
+                drain();
+            }
+        }
+        footer();
+        drain();
+        out.flush();
+    }
+
+    private void header() {
+        switch (format) {
+            case TABLE:
+                buffer.append(String.format("%-10s %-24s %-32s %-20s %7s %5s", "Roll No", "Name", "Email", "Course", "Marks", "Grade")).append(NL);
+                break;
+            case CSV:
+                buffer.append("rollNo,name,email,course,marks,grade").append(NL);
+                break;
+            case JSON:
+                buffer.append('[');
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void footer() {
+        if (format == Format.JSON) {
+            buffer.append(']').append(NL);
+        }
+    }
+
+    private void record(Student s, boolean first) {
+        Double marks = s.getMarks();
+        switch (format) {
+            case DETAIL:
+                buffer.append("Roll No: ").append(s.getRollNo().intValue()).append(NL)
+                        .append("Name: ").append(s.getName()).append(NL)
+                        .append("Email: ").append(s.getEmail()).append(NL)
+                        .append("Course: ").append(s.getCourse()).append(NL)
+                        .append("Marks: ");
+                if (marks != null) buffer.append(marks.doubleValue()); else buffer.append("N/A");
+                buffer.append(NL).append("Grade: ").append(s.getGrade().charValue()).append(NL)
+                        .append(SEPARATOR).append(NL);
+                break;
+            case TABLE:
+                pad(String.valueOf(s.getRollNo()), 10, false).append(' ');
+                pad(s.getName(), 24, false).append(' ');
+                pad(s.getEmail(), 32, false).append(' ');
+                pad(s.getCourse(), 20, false).append(' ');
+                pad(marks != null ? String.valueOf(marks) : "N/A", 7, true).append(' ');
+                pad(String.valueOf(s.getGrade()), 5, true).append(NL);
+                break;
+            case CSV:
+                buffer.append(s.getRollNo().intValue()).append(',');
+                csv(s.getName()).append(',');
+                csv(s.getEmail()).append(',');
+                csv(s.getCourse()).append(',');
+                if (marks != null) buffer.append(marks.doubleValue());
+                buffer.append(',').append(s.getGrade().charValue()).append(NL);
+                break;
+            case JSON:
+                if (!first) buffer.append(',');
+                buffer.append(NL).append("  {\"rollNo\":").append(s.getRollNo().intValue()).append(",\"name\":");
+                json(s.getName()).append(",\"email\":");
+                json(s.getEmail()).append(",\"course\":");
+                json(s.getCourse()).append(",\"marks\":");
+                if (marks != null && Double.isFinite(marks)) buffer.append(marks.doubleValue()); else buffer.append("null");
+                buffer.append(",\"grade\":\"").append(s.getGrade().charValue()).append("\"}");
+                break;
+        }
+    }
+
+    private StringBuilder pad(String value, int width, boolean right) {
+        String text = value == null ? "" : value;
+        if (right) for (int i = text.length(); i < width; i++) buffer.append(' ');
+        buffer.append(text);
+        if (!right) for (int i = text.length(); i < width; i++) buffer.append(' ');
+        return buffer;
+    }
+
+    private StringBuilder csv(String value) {
+        if (value == null) return buffer;
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) return buffer.append(value);
+        buffer.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') buffer.append('"');
+            buffer.append(c);
+        }
+        return buffer.append('"');
+    }
+
+    private StringBuilder json(String value) {
+        if (value == null) return buffer.append("null");
+        buffer.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': buffer.append("\\\""); break;
+                case '\\': buffer.append("\\\\"); break;
+                case '\n': buffer.append("\\n"); break;
+                case '\r': buffer.append("\\r"); break;
+                case '\t': buffer.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        buffer.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        buffer.append(c);
+                    }
+            }
+        }
+        return buffer.append('"');
+    }
+
+    private void drain() {
+        if (buffer.length() == 0) return;
+        int needed = (int) (buffer.length() * encoder.maxBytesPerChar()) + 16;
+        if (bytes.capacity() < needed) {
+            bytes = ByteBuffer.allocate(Math.max(needed, bytes.capacity() * 2));
+        }
+        CharBuffer chars = CharBuffer.wrap(buffer);
+        encoder.reset();
+        bytes.clear();
+        encoder.encode(chars, bytes, true);
+        encoder.flush(bytes);
+        out.write(bytes.array(), 0, bytes.position());
+        buffer.setLength(0);
+    }
+}
+
+// --- 23. Local HTTP Query Service ---
+// java StudentManagementSystem --serve [port]   (binds to loopback only)
+//   GET    /students?sort=none|marks|name&offset=0&limit=100
+//   GET    /students/top?k=10
+//   GET    /students/{rollNo}
+//   POST   /students                 body: rollNo,name,email,course,marks
+//   PUT    /students/{rollNo}/marks  body: marks
+//   DELETE /students/{rollNo}
+//   POST   /save
+// Backed by ConcurrentStudentManager. Each exchange runs on a virtual thread when the
+// JDK provides them (21+), otherwise on a cached platform-thread pool.
+class StudentHttpService {
+    static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_PAGE = 100;
+
+    static {
+        // Headers and body go out as separate writes; without TCP_NODELAY, Nagle plus
+        // delayed ACKs add ~40 ms to every keep-alive response.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final ConcurrentStudentManager manager;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public StudentHttpService(ConcurrentStudentManager manager, int port) throws IOException {
+        this.manager = manager;
+        this.server = HttpServer.create(new InetSocketAddress(java.net.InetAddress.getLoopbackAddress(), port), 1024);
+        this.executor = requestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/students", this::handleStudents);
+        server.createContext("/save", this::handleSave);
+    }
+
+    static void serve(int port) {
+        try {
+            StudentHttpService service = new StudentHttpService(
+                    new ConcurrentStudentManager(FileUtil.loadStudentsParallel()), port);
+            service.start();
+            System.out.println("Serving student records on http://127.0.0.1:" + service.port() + "/students");
+        } catch (IOException e) {
+            System.err.println("Could not start HTTP service: " + e.getMessage());
+        }
+    }
+
+    static ExecutorService requestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleStudents(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = exchange.getRequestURI().getPath().replaceAll("/+$", "").split("/");
+            String method = exchange.getRequestMethod();
+            Map<String, String> query = query(exchange);
+            // path: "", "students", [id | "top"], ["marks"]
+            if (path.length == 2) {
+                if (method.equals("GET")) {
+                    int sort = sortOption(query.getOrDefault("sort", "none"));
+                    int offset = Integer.parseInt(query.getOrDefault("offset", "0"));
+                    int limit = Integer.parseInt(query.getOrDefault("limit", String.valueOf(DEFAULT_PAGE)));
+                    sendStudents(exchange, 200, manager.page(sort, offset, limit));
+                } else if (method.equals("POST")) {
+                    String[] fields = body(exchange).split(",");
+                    if (fields.length != 5) {
+                        sendText(exchange, 400, "expected rollNo,name,email,course,marks");
+                        return;
+                    }
+                    Student s = new Student(Integer.valueOf(fields[0].trim()), fields[1].trim(), fields[2].trim(),
+                            fields[3].trim(), Double.valueOf(fields[4].trim()));
+                    if (!validMarks(s.getMarks())) {
+                        sendText(exchange, 400, "Marks must be between 0 and 100.");
+                    } else if (manager.addStudent(s)) {
+                        sendStudents(exchange, 201, Collections.singletonList(manager.findStudent(s.getRollNo())));
+                    } else {
+                        sendText(exchange, 409, "Student with Roll No. " + s.getRollNo() + " already exists.");
+                    }
+                } else {
+                    sendText(exchange, 405, "method not allowed");
+                }
+            } else if (path.length == 3 && path[2].equals("top") && method.equals("GET")) {
+                sendStudents(exchange, 200, manager.topByMarks(Integer.parseInt(query.getOrDefault("k", "10"))));
+            } else if (path.length == 3) {
+                int rollNo = Integer.parseInt(path[2]);
+                if (method.equals("GET")) {
+                    sendStudents(exchange, 200, Collections.singletonList(manager.findStudent(rollNo)));
+                } else if (method.equals("DELETE")) {
+                    sendStudents(exchange, 200, Collections.singletonList(manager.deleteStudent(rollNo)));
+                } else {
+                    sendText(exchange, 405, "method not allowed");
+                }
+            } else if (path.length == 4 && path[3].equals("marks") && method.equals("PUT")) {
+                Double marks = Double.valueOf(body(exchange).trim());
+                if (!validMarks(marks)) {
+                    sendText(exchange, 400, "Marks must be between 0 and 100.");
+                    return;
+                }
+                sendStudents(exchange, 200, Collections.singletonList(
+                        manager.updateStudentMarks(Integer.parseInt(path[2]), marks)));
+            } else {
+                sendText(exchange, 404, "no such resource");
+            }
+        } catch (StudentNotFoundException e) {
+            sendText(exchange, 404, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            sendText(exchange, 400, "invalid request: " + e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleSave(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                sendText(exchange, 405, "method not allowed");
+                return;
+            }
+            if (manager.saveAndExit()) {
+                sendText(exchange, 200, "saved " + manager.size() + " records");
+            } else {
+                sendText(exchange, 500, "save failed; records were not written");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static boolean validMarks(Double marks) {
+        return marks != null && marks >= 0 && marks <= 100;
+    }
+
+    private static int sortOption(String key) {
+        switch (key) {
+            case "marks": return 1;
+            case "name": return 2;
+            case "none": return 0;
+            default: throw new IllegalArgumentException("sort must be none, marks or name");
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null || raw.isEmpty()) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static String body(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void sendStudents(HttpExchange exchange, int status, List<Student> students) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(256 + students.size() * 128);
+        new StudentRenderer(StudentRenderer.Format.JSON, new PrintStream(body, false, StandardCharsets.UTF_8),
+                StandardCharsets.UTF_8).render(students);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        send(exchange, status, body.toByteArray());
+    }
+
+    private static void sendText(HttpExchange exchange, int status, String message) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        send(exchange, status, (message + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
+
+// Loopback load generator for StudentHttpService. Starts an in-process service over a
+// synthetic roster unless a base URL is given, then keeps <concurrency> requests in
+// flight for <seconds> and reports throughput and latency percentiles.
+// Run: java HttpLoadGenerator [concurrency] [seconds] [records] [baseUrl]
+class HttpLoadGenerator {
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int records = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+
+        StudentHttpService service = null;
+        String baseUrl;
+        if (args.length > 3) {
+            baseUrl = args[3];
+        } else {
+            Map<Integer, Student> roster = new HashMap<>();
+            for (Student s : RosterGenerator.generate(records, 7)) roster.put(s.getRollNo(), s);
+            service = new StudentHttpService(new ConcurrentStudentManager(roster), 0);
+            service.start();
+            baseUrl = "http://127.0.0.1:" + service.port();
+        }
+
+        ExecutorService clientPool = StudentHttpService.requestExecutor();
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clientPool).build();
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicLong ok = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        Random random = new Random(11);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long started = System.nanoTime();
+
+        int request = 0;
+        while (System.nanoTime() < deadline) {
+            inFlight.acquire();
+            int rollNo = 100_000 + random.nextInt(records);
+            HttpRequest httpRequest = (request++ % 10 == 0)
+                    ? HttpRequest.newBuilder(URI.create(baseUrl + "/students/" + rollNo + "/marks"))
+                        .PUT(HttpRequest.BodyPublishers.ofString(String.valueOf(random.nextInt(1001) / 10.0))).build()
+                    : HttpRequest.newBuilder(URI.create(baseUrl + "/students/" + rollNo)).GET().build();
+            long sent = System.nanoTime();
+            CompletableFuture<HttpResponse<Void>> response =
+                    client.sendAsync(httpRequest, HttpResponse.BodyHandlers.discarding());
+            response.whenComplete((r, error) -> {
+                latencies.add(System.nanoTime() - sent);
+                if (error == null && r.statusCode() == HttpURLConnection.HTTP_OK) ok.incrementAndGet();
+                else failed.incrementAndGet();
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(concurrency);
+        double elapsed = (System.nanoTime() - started) / 1e9;
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("%d requests in %.1f s with %d in flight: %.0f req/s, %d failed%n",
+                ok.get() + failed.get(), elapsed, concurrency, (ok.get() + failed.get()) / elapsed, failed.get());
+        if (sorted.length > 0) {
+            System.out.printf("latency ms  p50 %.2f  p90 %.2f  p99 %.2f  max %.2f%n",
+                    sorted[sorted.length / 2] / 1e6, sorted[(int) (sorted.length * 0.9)] / 1e6,
+                    sorted[(int) (sorted.length * 0.99)] / 1e6, sorted[sorted.length - 1] / 1e6);
+        }
+        clientPool.shutdownNow();
+        if (service != null) service.stop();
+    }
+}
+
+// --- 24. Disk-Resident Store with LRU Cache ---
+// Records live in an append-only data file; only a bounded, access-ordered cache of
+// Student objects stays on the heap. Updates mark cache entries dirty and are written
+// back (as a new record version) on eviction or flush(). Deletes append a tombstone.
+// Superseded versions stay in the file until it is rewritten.
+class DiskStudentStore implements StudentStore, Closeable {
+    private static final class CacheEntry {
+        Student student;
+        boolean dirty;
+
+        CacheEntry(Student student, boolean dirty) {
+            this.student = student;
+            this.dirty = dirty;
+        }
+    }
+
+    private final FileChannel channel;
+    private final OffsetIndex index;
+    private final LinkedHashMap<Integer, CacheEntry> cache;
+    private long end;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long writeBacks;
+
+    // Rebuilds an in-memory offset index by scanning the data file.
+    public DiskStudentStore(Path dataFile, int cacheCapacity) throws IOException {
+        this(dataFile, cacheCapacity, new IntLongIndex());
+    }
+
+    // Uses a persistent B+-tree index, so opening costs a few page reads instead of a scan
+    // as long as the index was last flushed against the current end of the data file.
+    public static DiskStudentStore withTreeIndex(Path dataFile, Path indexFile, int cacheCapacity) throws IOException {
+        return new DiskStudentStore(dataFile, cacheCapacity, new BPlusTreeIndex(indexFile));
+    }
+
+    // An index that does not vouch for exactly this data file length (new, deleted, or
+    // changed since its last flush, e.g. by a crash) is rebuilt from the record headers.
+    DiskStudentStore(Path dataFile, int cacheCapacity, OffsetIndex index) throws IOException {
+        if (cacheCapacity < 1) {
+            throw new IllegalArgumentException("cache capacity must be at least 1: " + cacheCapacity);
+        }
+        this.channel = FileChannel.open(dataFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.index = index;
+        this.end = channel.size();
+        this.cache = new LinkedHashMap<Integer, CacheEntry>(Math.min(cacheCapacity, 1 << 16), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, CacheEntry> eldest) {
+                if (size() <= cacheCapacity) {
+                    return false;
+                }
+                evictions++;
+                if (eldest.getValue().dirty) {
+                    writeBack(eldest.getValue().student);
+                }
+                return true;
+            }
+        };
+        if (index.syncedDataEnd() != end) {
+            rebuildIndex();
+        }
+    }
+
+    private void rebuildIndex() throws IOException {
+        index.clear();
+        long complete = scan((offset, rollNo, live) -> {
+            if (live) index.put(rollNo, offset); else index.remove(rollNo);
+        });
+        if (complete < end) {
+            System.err.println("Dropping " + (end - complete) + " bytes of a torn record at the end of the data file.");
+            channel.truncate(complete);
+            end = complete;
+        }
+        channel.force(false);
+        index.flush(end);
+    }
+
+    interface RecordVisitor {
+        void visit(long offset, int rollNo, boolean live) throws IOException;
+    }
+
+    // Walks record headers only: [int length][int rollNo][byte live] ...
+    // Returns where the last complete record ends; a torn record at the tail is not visited.
+    private long scan(RecordVisitor visitor) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(9);
+        long offset = 0;
+        while (end - offset >= header.capacity()) {
+            header.clear();
+            readFully(header, offset);
+            header.flip();
+            int length = header.getInt();
+            if (length < header.capacity() - 4 || length > end - offset - 4) {
+                break;
+            }
+            visitor.visit(offset, header.getInt(), header.get() != 0);
+            offset += 4 + length;
+        }
+        return offset;
+    }
+
+    @Override
+    public Student get(int rollNo) {
+        CacheEntry entry = cache.get(rollNo);
+        if (entry != null) {
+            hits++;
+            return entry.student;
+        }
+        long offset = index.get(rollNo);
+        if (offset < 0) {
+            return null;
+        }
+        misses++;
+        Student s = read(offset);
+        cache.put(rollNo, new CacheEntry(s, false));
+        return s;
+    }
+
+    @Override
+    public Student put(int rollNo, Student s) {
+        CacheEntry entry = cache.get(rollNo);
+        Student previous = entry != null ? entry.student : null;
+        if (entry != null) {
+            entry.student = s;
+            entry.dirty = true;
+            return previous;
+        }
+        long offset = index.get(rollNo);
+        if (offset < 0) {
+            // New records go straight to disk so the index never points at nothing.
+            index.put(rollNo, append(s, true));
+            cache.put(rollNo, new CacheEntry(s, false));
+            return null;
+        }
+        cache.put(rollNo, new CacheEntry(s, true));
+        return read(offset);
+    }
+
+    @Override
+    public Student remove(int rollNo) {
+        CacheEntry entry = cache.remove(rollNo);
+        long offset = index.get(rollNo);
+        if (offset < 0) {
+            return null;
+        }
+        Student removed = entry != null ? entry.student : read(offset);
+        append(removed, false);
+        index.remove(rollNo);
+        return removed;
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public boolean isMemoryResident() {
+        return false;
+    }
+
+    @Override
+    public List<Student> range(int fromRoll, int toRoll) {
+        if (!(index instanceof BPlusTreeIndex)) {
+            return StudentStore.super.range(fromRoll, toRoll);
+        }
+        List<Student> result = new ArrayList<>();
+        ((BPlusTreeIndex) index).range(fromRoll, toRoll, (rollNo, offset) -> {
+            CacheEntry cached = cache.get(rollNo);
+            result.add(cached != null ? cached.student : read(offset));
+        });
+        return result;
+    }
+
+    // Streams the data file; only the current version of each record is returned, with
+    // cached (possibly dirty) copies taking precedence over what is on disk.
+    @Override
+    public Collection<Student> values() {
+        return new AbstractCollection<Student>() {
+            @Override
+            public Iterator<Student> iterator() {
+                List<Long> current = new ArrayList<>();
+                try {
+                    scan((offset, rollNo, live) -> {
+                        if (live && index.get(rollNo) == offset) current.add(offset);
+                    });
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                Iterator<Long> offsets = current.iterator();
+                return new Iterator<Student>() {
+                    @Override
+                    public boolean hasNext() {
+                        return offsets.hasNext();
+                    }
+
+                    @Override
+                    public Student next() {
+                        Student onDisk = read(offsets.next());
+                        CacheEntry cached = cache.get(onDisk.getRollNo());
+                        return cached != null ? cached.student : onDisk;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return index.size();
+            }
+        };
+    }
+
+    @Override
+    public void flush() {
+        for (CacheEntry entry : cache.values()) {
+            if (entry.dirty) {
+                writeBack(entry.student);
+                entry.dirty = false;
+            }
+        }
+        try {
+            // Records first, so the index never vouches for bytes that are not on disk.
+            channel.force(false);
+            index.flush(end);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+        index.close();
+    }
+
+    private void writeBack(Student s) {
+        writeBacks++;
+        index.put(s.getRollNo(), append(s, true));
+    }
+
+    private long append(Student s, boolean live) {
+        ByteBuffer record = RecordCodec.encode(s, live);
+        long offset = end;
+        try {
+            while (record.hasRemaining()) {
+                end += channel.write(record, end);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return offset;
+    }
+
+    private Student read(long offset) {
+        try {
+            ByteBuffer length = ByteBuffer.allocate(4);
+            readFully(length, offset);
+            ByteBuffer record = ByteBuffer.allocate(length.getInt(0));
+            readFully(record, offset + 4);
+            record.flip();
+            return RecordCodec.decode(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("unexpected end of data file at " + position);
+            }
+        }
+    }
+
+    // Bytes of records and tombstones written so far; 0 for a store never written to.
+    public long dataFileSize() { return end; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getEvictions() { return evictions; }
+    public long getWriteBacks() { return writeBacks; }
+    public int getCachedCount() { return cache.size(); }
+
+    public String stats() {
+        long lookups = hits + misses;
+        return String.format("cache %d entries, hits %d, misses %d (hit rate %.1f%%), evictions %d, write-backs %d",
+                cache.size(), hits, misses, lookups == 0 ? 0.0 : 100.0 * hits / lookups, evictions, writeBacks);
+    }
+}
+
+// Binary record layout shared by disk-backed stores:
+// [int length][int rollNo][byte live][byte hasMarks][double marks][name][email][course]
+// with strings as [int byteLength | -1 for null][UTF-8 bytes].
+final class RecordCodec {
+    private RecordCodec() {
+    }
+
+    static ByteBuffer encode(Student s, boolean live) {
+        byte[] name = utf8(s.getName());
+        byte[] email = utf8(s.getEmail());
+        byte[] course = utf8(s.getCourse());
+        int length = 4 + 1 + 1 + 8 + stringSize(name) + stringSize(email) + stringSize(course);
+        ByteBuffer buffer = ByteBuffer.allocate(4 + length);
+        Double marks = s.getMarks();
+        buffer.putInt(length).putInt(s.getRollNo()).put((byte) (live ? 1 : 0))
+                .put((byte) (marks != null ? 1 : 0)).putDouble(marks != null ? marks : 0.0);
+        putString(buffer, name);
+        putString(buffer, email);
+        putString(buffer, course);
+        buffer.flip();
+        return buffer;
+    }
+
+    // Decodes a record body (everything after the length prefix).
+    static Student decode(ByteBuffer buffer) {
+        int rollNo = buffer.getInt();
+        buffer.get();
+        boolean hasMarks = buffer.get() != 0;
+        double marks = buffer.getDouble();
+        String name = getString(buffer);
+        String email = getString(buffer);
+        String course = CourseDictionary.SHARED.intern(getString(buffer));
+        return new Student(rollNo, name, email, course, hasMarks ? marks : null);
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int stringSize(byte[] bytes) {
+        return 4 + (bytes == null ? 0 : bytes.length);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
+
+// Roll number -> data file offset; get() returns -1 when absent.
+interface OffsetIndex extends Closeable {
+    long get(int rollNo);
+    void put(int rollNo, long offset);
+    void remove(int rollNo);
+    int size();
+    void clear();
+
+    // Data file length this index was last flushed against, or -1 if it cannot vouch
+    // for any (never flushed, or changed since).
+    default long syncedDataEnd() {
+        return -1;
+    }
+
+    // Makes the index durable and records that it covers the data file up to dataEnd.
+    default void flush(long dataEnd) throws IOException {
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+}
+
+// Heap-resident OffsetIndex: an IntKeyTable with long[] offsets.
+class IntLongIndex extends IntKeyTable implements OffsetIndex {
+    private long[] offsets;
+
+    IntLongIndex() {
+        super(16);
+        offsets = new long[capacity()];
+    }
+
+    @Override
+    public long get(int key) {
+        int i = find(key);
+        return i < 0 ? -1 : offsets[i];
+    }
+
+    @Override
+    public void put(int key, long offset) {
+        int i = claim(key);
+        offsets[i] = offset;
+    }
+
+    @Override
+    public void remove(int key) {
+        int i = find(key);
+        if (i >= 0) delete(i);
+    }
+
+    @Override
+    void moveValue(int from, int to) {
+        offsets[to] = offsets[from];
+    }
+
+    @Override
+    void clearValue(int slot) {
+    }
+
+    @Override
+    void relocateValues(int[] target, int capacity) {
+        long[] old = offsets;
+        offsets = new long[capacity];
+        for (int i = 0; i < old.length; i++) {
+            if (target[i] >= 0) offsets[target[i]] = old[i];
+        }
+    }
+}
+
+// --- 25. On-Disk B+-Tree Index ---
+// Page-based B+-tree mapping roll number -> data file offset. 4 KiB pages:
+//   page 0  meta: magic, root page, page count, entry count, synced data end
+//           (-1 from the first change after a flush until the next flush)
+//   leaf    [byte 0][short n][pad][int next leaf] then n x (int key, long offset)
+//   inner   [byte 1][short n][pad][int child0] then n x (int key, int child)
+// Keys >= key[i] live under child i+1. Removal deletes from the leaf without
+// rebalancing; lookups stay correct, pages are simply less full.
+class BPlusTreeIndex implements OffsetIndex {
+    interface EntryVisitor {
+        void visit(int rollNo, long offset);
+    }
+
+    private static final int PAGE_SIZE = 4096;
+    private static final int MAGIC = 0x42505449;
+    private static final int HEADER = 8;
+    private static final int LEAF_CAPACITY = (PAGE_SIZE - HEADER - 4) / 12;
+    private static final int INNER_CAPACITY = (PAGE_SIZE - HEADER - 4) / 8;
+    private static final int CACHED_PAGES = 1024;
+    private static final int META_SIZE = 24;
+
+    private static final class Node {
+        final int page;
+        final boolean leaf;
+        int count;
+        final int[] keys;
+        final long[] offsets;   // leaf only
+        final int[] children;   // inner only, count + 1 used
+        int next = -1;          // leaf only
+
+        Node(int page, boolean leaf) {
+            this.page = page;
+            this.leaf = leaf;
+            this.keys = new int[(leaf ? LEAF_CAPACITY : INNER_CAPACITY) + 1];
+            this.offsets = leaf ? new long[LEAF_CAPACITY + 1] : null;
+            this.children = leaf ? null : new int[INNER_CAPACITY + 2];
+        }
+    }
+
+    private static final class Split {
+        final int key;
+        final int page;
+
+        Split(int key, int page) {
+            this.key = key;
+            this.page = page;
+        }
+    }
+
+    private final FileChannel channel;
+    private final LinkedHashMap<Integer, Node> pageCache =
+            new LinkedHashMap<Integer, Node>(CACHED_PAGES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Node> eldest) {
+                    return size() > CACHED_PAGES;
+                }
+            };
+    private final ByteBuffer pageBuffer = ByteBuffer.allocate(PAGE_SIZE);
+    private int root;
+    private int pageCount;
+    private int size;
+    private long syncedDataEnd = -1;
+    private long pageReads;
+
+    public BPlusTreeIndex(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            initialize();
+        } else {
+            ByteBuffer meta = ByteBuffer.allocate(META_SIZE);
+            channel.read(meta, 0);
+            meta.flip();
+            if (meta.remaining() < 16 || meta.getInt() != MAGIC) {
+                throw new IOException(file + " is not a B+-tree index");
+            }
+            root = meta.getInt();
+            pageCount = meta.getInt();
+            size = meta.getInt();
+            syncedDataEnd = meta.remaining() >= 8 ? meta.getLong() : -1;
+        }
+    }
+
+    private void initialize() {
+        pageCache.clear();
+        pageCount = 1;
+        size = 0;
+        Node first = allocate(true);
+        root = first.page;
+        writeNode(first);
+        writeMeta();
+    }
+
+    @Override
+    public void clear() {
+        try {
+            channel.truncate(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        syncedDataEnd = -1;
+        initialize();
+    }
+
+    @Override
+    public long syncedDataEnd() {
+        return syncedDataEnd;
+    }
+
+    // Pages are written in place and not forced in order, so before the first change
+    // the meta page stops vouching for the data file; a crash before the next flush
+    // then leads to a rebuild instead of trusting half-written pages.
+    private void beginChange() {
+        if (syncedDataEnd < 0) {
+            return;
+        }
+        syncedDataEnd = -1;
+        writeMeta();
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public long get(int rollNo) {
+        Node node = node(root);
+        while (!node.leaf) {
+            node = node(node.children[childIndex(node, rollNo)]);
+        }
+        int i = Arrays.binarySearch(node.keys, 0, node.count, rollNo);
+        return i >= 0 ? node.offsets[i] : -1;
+    }
+
+    @Override
+    public void put(int rollNo, long offset) {
+        beginChange();
+        Split split = insert(node(root), rollNo, offset);
+        if (split != null) {
+            Node newRoot = allocate(false);
+            newRoot.count = 1;
+            newRoot.keys[0] = split.key;
+            newRoot.children[0] = root;
+            newRoot.children[1] = split.page;
+            writeNode(newRoot);
+            root = newRoot.page;
+        }
+        writeMeta();
+    }
+
+    private Split insert(Node node, int key, long offset) {
+        if (node.leaf) {
+            int i = Arrays.binarySearch(node.keys, 0, node.count, key);
+            if (i >= 0) {
+                node.offsets[i] = offset;
+                writeNode(node);
+                return null;
+            }
+            int at = -i - 1;
+            System.arraycopy(node.keys, at, node.keys, at + 1, node.count - at);
+            System.arraycopy(node.offsets, at, node.offsets, at + 1, node.count - at);
+            node.keys[at] = key;
+            node.offsets[at] = offset;
+            node.count++;
+            size++;
+            if (node.count <= LEAF_CAPACITY) {
+                writeNode(node);
+                return null;
+            }
+            Node right = allocate(true);
+            int half = node.count / 2;
+            right.count = node.count - half;
+            System.arraycopy(node.keys, half, right.keys, 0, right.count);
+            System.arraycopy(node.offsets, half, right.offsets, 0, right.count);
+            node.count = half;
+            right.next = node.next;
+            node.next = right.page;
+            writeNode(right);
+            writeNode(node);
+            return new Split(right.keys[0], right.page);
+        }
+
+        int child = childIndex(node, key);
+        Split split = insert(node(node.children[child]), key, offset);
+        if (split == null) {
+            return null;
+        }
+        System.arraycopy(node.keys, child, node.keys, child + 1, node.count - child);
+        System.arraycopy(node.children, child + 1, node.children, child + 2, node.count - child);
+        node.keys[child] = split.key;
+        node.children[child + 1] = split.page;
+        node.count++;
+        if (node.count <= INNER_CAPACITY) {
+            writeNode(node);
+            return null;
+        }
+        Node right = allocate(false);
+        int mid = node.count / 2;
+        int promoted = node.keys[mid];
+        right.count = node.count - mid - 1;
+        System.arraycopy(node.keys, mid + 1, right.keys, 0, right.count);
+        System.arraycopy(node.children, mid + 1, right.children, 0, right.count + 1);
+        node.count = mid;
+        writeNode(right);
+        writeNode(node);
+        return new Split(promoted, right.page);
+    }
+
+    @Override
+    public void remove(int rollNo) {
+        Node node = node(root);
+        while (!node.leaf) {
+            node = node(node.children[childIndex(node, rollNo)]);
+        }
+        int i = Arrays.binarySearch(node.keys, 0, node.count, rollNo);
+        if (i < 0) {
+            return;
+        }
+        beginChange();
+        System.arraycopy(node.keys, i + 1, node.keys, i, node.count - i - 1);
+        System.arraycopy(node.offsets, i + 1, node.offsets, i, node.count - i - 1);
+        node.count--;
+        size--;
+        writeNode(node);
+        writeMeta();
+    }
+
+    // Visits entries with fromRoll <= key <= toRoll in key order.
+    public void range(int fromRoll, int toRoll, EntryVisitor visitor) {
+        Node node = node(root);
+        while (!node.leaf) {
+            node = node(node.children[childIndex(node, fromRoll)]);
+        }
+        int i = Arrays.binarySearch(node.keys, 0, node.count, fromRoll);
+        i = i >= 0 ? i : -i - 1;
+        while (true) {
+            for (; i < node.count; i++) {
+                if (node.keys[i] > toRoll) return;
+                visitor.visit(node.keys[i], node.offsets[i]);
+            }
+            if (node.next < 0) return;
+            node = node(node.next);
+            i = 0;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public long getPageReads() {
+        return pageReads;
+    }
+
+    // Pages first, then the meta page that vouches for them.
+    @Override
+    public void flush(long dataEnd) throws IOException {
+        channel.force(false);
+        syncedDataEnd = dataEnd;
+        writeMeta();
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+
+    private static int childIndex(Node inner, int key) {
+        int i = Arrays.binarySearch(inner.keys, 0, inner.count, key);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    private Node allocate(boolean leaf) {
+        Node node = new Node(pageCount++, leaf);
+        pageCache.put(node.page, node);
+        return node;
+    }
+
+    private Node node(int page) {
+        Node cached = pageCache.get(page);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            pageBuffer.clear();
+            while (pageBuffer.hasRemaining()) {
+                if (channel.read(pageBuffer, (long) page * PAGE_SIZE + pageBuffer.position()) < 0) {
+                    throw new EOFException("index page " + page + " is missing");
+                }
+            }
+            pageReads++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        pageBuffer.flip();
+        boolean leaf = pageBuffer.get() == 0;
+        Node node = new Node(page, leaf);
+        node.count = pageBuffer.getShort();
+        pageBuffer.position(HEADER);
+        if (leaf) {
+            node.next = pageBuffer.getInt();
+            for (int i = 0; i < node.count; i++) {
+                node.keys[i] = pageBuffer.getInt();
+                node.offsets[i] = pageBuffer.getLong();
+            }
+        } else {
+            node.children[0] = pageBuffer.getInt();
+            for (int i = 0; i < node.count; i++) {
+                node.keys[i] = pageBuffer.getInt();
+                node.children[i + 1] = pageBuffer.getInt();
+            }
+        }
+        pageCache.put(page, node);
+        return node;
+    }
+
+    private void writeNode(Node node) {
+        pageBuffer.clear();
+        pageBuffer.put((byte) (node.leaf ? 0 : 1)).putShort((short) node.count);
+        pageBuffer.position(HEADER);
+        if (node.leaf) {
+            pageBuffer.putInt(node.next);
+            for (int i = 0; i < node.count; i++) {
+                pageBuffer.putInt(node.keys[i]).putLong(node.offsets[i]);
+            }
+        } else {
+            pageBuffer.putInt(node.children[0]);
+            for (int i = 0; i < node.count; i++) {
+                pageBuffer.putInt(node.keys[i]).putInt(node.children[i + 1]);
+            }
+        }
+        pageBuffer.position(PAGE_SIZE).flip();
+        write(pageBuffer, (long) node.page * PAGE_SIZE);
+        pageCache.put(node.page, node);
+    }
+
+    private void writeMeta() {
+        ByteBuffer meta = ByteBuffer.allocate(META_SIZE);
+        meta.putInt(MAGIC).putInt(root).putInt(pageCount).putInt(size).putLong(syncedDataEnd).flip();
+        write(meta, 0);
+    }
+
+    private void write(ByteBuffer buffer, long position) {
+        try {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
+
+// --- 26. Background Autosave ---
+// Stands in for the journal as a roster listener. Mutations only record the
+// changed roll number with a copy of the record; a scheduled task writes the
+// latest version of each dirty record to the journal in one batch, so a burst
+// of updates to one student costs a single entry.
+class AutosaveService implements RosterListener, Closeable {
+    static final int DEFAULT_MAX_DIRTY = 1_000;
+
+    // Marks a roll number whose latest change was a delete.
+    private static final Student REMOVED = new Student(0, "", "", "", null);
+
+    private final StudentJournal journal;
+    private final int maxDirty;
+    private final ConcurrentHashMap<Integer, Student> dirty = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final ScheduledFuture<?> periodic;
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final AtomicLong changes = new AtomicLong();
+    private long flushes;
+    private long written;
+
+    public AutosaveService(StudentJournal journal, long interval, TimeUnit unit, int maxDirty) {
+        if (interval <= 0 || maxDirty < 1) {
+            throw new IllegalArgumentException("interval and maxDirty must be positive");
+        }
+        this.journal = journal;
+        this.maxDirty = maxDirty;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "roster-autosave");
+            t.setDaemon(true);
+            return t;
+        });
+        this.periodic = scheduler.scheduleWithFixedDelay(this::flush, interval, interval, unit);
+    }
+
+    @Override
+    public void studentAdded(Student s) {
+        markDirty(s.getRollNo(), copyOf(s));
+    }
+
+    @Override
+    public void studentRemoved(Student s) {
+        markDirty(s.getRollNo(), REMOVED);
+    }
+
+    @Override
+    public void marksUpdated(Student s, Double oldMarks) {
+        markDirty(s.getRollNo(), copyOf(s));
+    }
+
+    @Override
+    public void studentsAdded(Collection<Student> batch) {
+        for (Student s : batch) {
+            markDirty(s.getRollNo(), copyOf(s));
+        }
+    }
+
+    // Students are updated in place, so the background writer gets its own copy.
+    private static Student copyOf(Student s) {
+        return s.withMarks(s.getMarks());
+    }
+
+    private void markDirty(int rollNo, Student latest) {
+        dirty.put(rollNo, latest);
+        changes.incrementAndGet();
+        if (dirty.size() >= maxDirty && flushQueued.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                flushQueued.set(false);
+            }
+        }
+    }
+
+    // Each entry is removed individually: a change racing with the flush either
+    // lands in this batch or stays behind for the next one.
+    public synchronized void flush() {
+        flushQueued.set(false);
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<Student> upserted = new ArrayList<>();
+        List<Integer> removed = new ArrayList<>();
+        for (Integer rollNo : dirty.keySet()) {
+            Student latest = dirty.remove(rollNo);
+            if (latest == REMOVED) {
+                removed.add(rollNo);
+            } else if (latest != null) {
+                upserted.add(latest);
+            }
+        }
+        journal.writeChanges(upserted, removed);
+        flushes++;
+        written += upserted.size() + removed.size();
+    }
+
+    public int getDirtyCount() {
+        return dirty.size();
+    }
+
+    public long getChangeCount() {
+        return changes.get();
+    }
+
+    public synchronized long getFlushCount() {
+        return flushes;
+    }
+
+    public synchronized long getWrittenCount() {
+        return written;
+    }
+
+    // Stops the schedule and writes whatever is still dirty on the caller's thread.
+    @Override
+    public void close() {
+        periodic.cancel(false);
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+}
+
+// --- 27. Incremental Roster Statistics ---
+// Grade counts, per-course count/mean/min/max and a marks histogram, updated on
+// every add, delete and marks change so no query has to scan the roster.
+// Percentiles come from the histogram: 0.1-mark buckets over 0..100, so they
+// are exact for marks entered with one decimal and within 0.05 otherwise.
+class RosterStatistics implements RosterListener {
+    private static final String GRADES = "ABCDI";
+    private static final int BUCKETS = 1001;
+
+    static final class CourseSummary {
+        final String course;
+        final int students;
+        final int marked;
+        final double mean;
+        final double min;
+        final double max;
+
+        CourseSummary(String course, int students, int marked, double mean, double min, double max) {
+            this.course = course;
+            this.students = students;
+            this.marked = marked;
+            this.mean = mean;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d student(s), mean %.2f, min %.1f, max %.1f",
+                    course, students, mean, min, max);
+        }
+    }
+
+    private static final class CourseStats {
+        int students;
+        int marked;
+        double sum;
+        // marks -> occurrences, so min and max survive deletes
+        final TreeMap<Double, Integer> marks = new TreeMap<>();
+
+        void add(double m) {
+            marked++;
+            sum += m;
+            marks.merge(m, 1, Integer::sum);
+        }
+
+        void remove(double m) {
+            marks.computeIfPresent(m, (k, n) -> n == 1 ? null : n - 1);
+            marked--;
+            sum = marked == 0 ? 0 : sum - m;
+        }
+    }
+
+    private final long[] gradeCounts = new long[GRADES.length()];
+    private final Map<String, CourseStats> courses = new HashMap<>();
+    private final long[] histogram = new long[BUCKETS];
+    private long marked;
+    private long students;
+
+    RosterStatistics(Collection<Student> roster) {
+        for (Student s : roster) {
+            studentAdded(s);
+        }
+    }
+
+    @Override
+    public synchronized void studentAdded(Student s) {
+        students++;
+        gradeCounts[GRADES.indexOf(s.getGrade())]++;
+        CourseStats c = courses.computeIfAbsent(s.getCourse(), k -> new CourseStats());
+        c.students++;
+        if (s.getMarks() != null) addMarks(c, s.getMarks());
+    }
+
+    @Override
+    public synchronized void studentRemoved(Student s) {
+        students--;
+        gradeCounts[GRADES.indexOf(s.getGrade())]--;
+        CourseStats c = courses.get(s.getCourse());
+        if (s.getMarks() != null) removeMarks(c, s.getMarks());
+        if (--c.students == 0) courses.remove(s.getCourse());
+    }
+
+    @Override
+    public synchronized void marksUpdated(Student s, Double oldMarks) {
+        gradeCounts[GRADES.indexOf(Student.gradeFor(oldMarks != null, oldMarks == null ? 0 : oldMarks))]--;
+        gradeCounts[GRADES.indexOf(s.getGrade())]++;
+        CourseStats c = courses.get(s.getCourse());
+        if (oldMarks != null) removeMarks(c, oldMarks);
+        if (s.getMarks() != null) addMarks(c, s.getMarks());
+    }
+
+    private void addMarks(CourseStats c, double m) {
+        c.add(m);
+        histogram[bucket(m)]++;
+        marked++;
+    }
+
+    private void removeMarks(CourseStats c, double m) {
+        c.remove(m);
+        histogram[bucket(m)]--;
+        marked--;
+    }
+
+    // Out-of-range marks are clamped into the end buckets.
+    private static int bucket(double m) {
+        if (!(m > 0)) return 0;
+        return (int) Math.min(BUCKETS - 1, Math.round(m * 10));
+    }
+
+    public synchronized long count() {
+        return students;
+    }
+
+    public synchronized Map<Character, Long> gradeCounts() {
+        Map<Character, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < GRADES.length(); i++) {
+            counts.put(GRADES.charAt(i), gradeCounts[i]);
+        }
+        return counts;
+    }
+
+    public synchronized CourseSummary course(String course) {
+        CourseStats c = courses.get(course);
+        return c == null ? null : summarize(course, c);
+    }
+
+    // One summary per course, sorted by course name.
+    public synchronized Map<String, CourseSummary> byCourse() {
+        Map<String, CourseSummary> result = new TreeMap<>();
+        for (Map.Entry<String, CourseStats> e : courses.entrySet()) {
+            result.put(e.getKey(), summarize(e.getKey(), e.getValue()));
+        }
+        return result;
+    }
+
+    private static CourseSummary summarize(String course, CourseStats c) {
+        if (c.marked == 0) {
+            return new CourseSummary(course, c.students, 0, Double.NaN, Double.NaN, Double.NaN);
+        }
+        return new CourseSummary(course, c.students, c.marked, c.sum / c.marked, c.marks.firstKey(), c.marks.lastKey());
+    }
+
+    // Nearest-rank percentile of the recorded marks, p in [0, 100]; NaN when no marks.
+    public synchronized double percentile(double p) {
+        if (p < 0 || p > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100: " + p);
+        }
+        if (marked == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(p / 100 * marked));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histogram[i];
+            if (seen >= rank) {
+                return i / 10.0;
+            }
+        }
+        return 100.0;
+    }
+
+    public double median() {
+        return percentile(50);
+    }
+
+    public synchronized void print() {
+        System.out.println("\n--- Roster Statistics (" + students + " students) ---");
+        System.out.println("Grades: " + gradeCounts());
+        if (marked > 0) {
+            System.out.printf("Marks p25 %.1f, median %.1f, p75 %.1f, p90 %.1f%n",
+                    percentile(25), percentile(50), percentile(75), percentile(90));
+        }
+        for (CourseSummary summary : byCourse().values()) {
+            System.out.println(summary);
+        }
+    }
+}
+
+// --- 28. Parallel Sorted Views and Filters ---
+// Large rosters are copied into an array once and sorted with Arrays.parallelSort
+// or filtered with a parallel stream over that array (an array splits evenly,
+// unlike the stores' iterators). Below the threshold the fork-join overhead is
+// not worth it and the same work runs sequentially. Both sorts are stable, so
+// the result is identical to List.sort with the same comparator.
+final class ParallelViews {
+    static final int DEFAULT_THRESHOLD = 1 << 14;
+    private static final String GRADE_ORDER = "ABCDI";
+
+    private ParallelViews() {
+    }
+
+    static Student[] sorted(Collection<Student> roster, Comparator<Student> order) {
+        return sorted(roster, order, DEFAULT_THRESHOLD);
+    }
+
+    static Student[] sorted(Collection<Student> roster, Comparator<Student> order, int threshold) {
+        Student[] snapshot = roster.toArray(new Student[0]);
+        if (snapshot.length < threshold) {
+            Arrays.sort(snapshot, order);
+        } else {
+            Arrays.parallelSort(snapshot, order);
+        }
+        return snapshot;
+    }
+
+    static List<Student> inCourse(Collection<Student> roster, String course) {
+        return inCourse(roster, course, DEFAULT_THRESHOLD);
+    }
+
+    static List<Student> inCourse(Collection<Student> roster, String course, int threshold) {
+        return filter(roster, s -> course.equals(s.getCourse()), threshold);
+    }
+
+    static List<Student> withGrades(Collection<Student> roster, char best, char worst) {
+        return withGrades(roster, best, worst, DEFAULT_THRESHOLD);
+    }
+
+    static List<Student> withGrades(Collection<Student> roster, char best, char worst, int threshold) {
+        int from = GRADE_ORDER.indexOf(Character.toUpperCase(best));
+        int to = GRADE_ORDER.indexOf(Character.toUpperCase(worst));
+        if (from < 0 || to < 0 || from > to) {
+            throw new IllegalArgumentException("grade range must run from better to worse within A-D, I: "
+                    + best + "-" + worst);
+        }
+        return filter(roster, s -> {
+            int rank = GRADE_ORDER.indexOf(s.getGrade());
+            return rank >= from && rank <= to;
+        }, threshold);
+    }
+
+    // Keeps the roster's iteration order in either mode.
+    private static List<Student> filter(Collection<Student> roster, Predicate<Student> keep,
+                                        int threshold) {
+        if (roster.size() < threshold) {
+            List<Student> result = new ArrayList<>();
+            for (Student s : roster) {
+                if (keep.test(s)) result.add(s);
+            }
+            return result;
+        }
+        return Arrays.stream(roster.toArray(new Student[0])).parallel()
+                .filter(keep)
+                .collect(Collectors.toList());
+    }
+}
+
+// --- 29. Prefix and Suffix Search ---
+// Sorted maps over lower-cased field values, kept current on add and delete:
+// whole name, each word of the name, email, reversed email (so "ends with" is a
+// prefix range) and course. A query is one range lookup plus the matches it
+// returns, independent of roster size. Several students can share a key (a
+// course, a common first name), so a map value is either one roll number or a
+// group of roll numbers in insertion order. Hits are resolved through the store
+// at query time, so stores that hand out copies (columnar) always return current
+// marks. Only memory-resident stores get an index; see StudentManager.searchIndex().
+class StudentSearchIndex implements RosterListener {
+    static final int DEFAULT_LIMIT = 50;
+
+    private final IntFunction<Student> lookup;
+    private final TreeMap<String, Object> names = new TreeMap<>();
+    private final TreeMap<String, Object> nameWords = new TreeMap<>();
+    private final TreeMap<String, Object> emails = new TreeMap<>();
+    private final TreeMap<String, Object> reversedEmails = new TreeMap<>();
+    private final TreeMap<String, Object> courses = new TreeMap<>();
+
+    StudentSearchIndex(Collection<Student> roster, IntFunction<Student> lookup) {
+        this.lookup = lookup;
+        for (Student s : roster) {
+            studentAdded(s);
+        }
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String reverse(String value) {
+        return new StringBuilder(value).reverse().toString();
+    }
+
+    private static Set<String> words(String name) {
+        String normalized = normalize(name);
+        return normalized.isEmpty()
+                ? Collections.emptySet()
+                : new LinkedHashSet<>(Arrays.asList(normalized.split("\\s+")));
+    }
+
+    @Override
+    public synchronized void studentAdded(Student s) {
+        String email = normalize(s.getEmail());
+        int rollNo = s.getRollNo();
+        add(names, normalize(s.getName()), rollNo);
+        for (String word : words(s.getName())) {
+            add(nameWords, word, rollNo);
+        }
+        add(emails, email, rollNo);
+        add(reversedEmails, reverse(email), rollNo);
+        add(courses, normalize(s.getCourse()), rollNo);
+    }
+
+    @Override
+    public synchronized void studentRemoved(Student s) {
+        String email = normalize(s.getEmail());
+        remove(names, normalize(s.getName()), s.getRollNo());
+        for (String word : words(s.getName())) {
+            remove(nameWords, word, s.getRollNo());
+        }
+        remove(emails, email, s.getRollNo());
+        remove(reversedEmails, reverse(email), s.getRollNo());
+        remove(courses, normalize(s.getCourse()), s.getRollNo());
+    }
+
+    @Override
+    public void marksUpdated(Student s, Double oldMarks) {
+        // none of the indexed fields change, and hits are read from the store
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<Integer> group(Object value) {
+        return (Set<Integer>) value;
+    }
+
+    private static void add(TreeMap<String, Object> map, String key, int rollNo) {
+        Object current = map.get(key);
+        if (current == null) {
+            map.put(key, rollNo);
+        } else if (current instanceof Integer) {
+            if ((Integer) current == rollNo) return;
+            Set<Integer> group = new LinkedHashSet<>();
+            group.add((Integer) current);
+            group.add(rollNo);
+            map.put(key, group);
+        } else {
+            group(current).add(rollNo);
+        }
+    }
+
+    private static void remove(TreeMap<String, Object> map, String key, int rollNo) {
+        Object current = map.get(key);
+        if (current instanceof Integer) {
+            if ((Integer) current == rollNo) map.remove(key);
+        } else if (current != null) {
+            Set<Integer> group = group(current);
+            group.remove(rollNo);
+            if (group.size() == 1) map.put(key, group.iterator().next());
+        }
+    }
+
+    // Up to limit matches in key order; a student matching through two keys is listed once.
+    private List<Student> prefixRange(TreeMap<String, Object> map, String prefix, int limit) {
+        Map<Integer, Student> found = new LinkedHashMap<>();
+        SortedMap<String, Object> range = prefix.isEmpty() ? map : map.subMap(prefix, prefix + Character.MAX_VALUE);
+        for (Object value : range.values()) {
+            if (found.size() >= limit) break;
+            if (value instanceof Integer) {
+                resolve((Integer) value, found);
+            } else {
+                for (Integer rollNo : group(value)) {
+                    if (found.size() >= limit) break;
+                    resolve(rollNo, found);
+                }
+            }
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    private void resolve(Integer rollNo, Map<Integer, Student> found) {
+        if (found.containsKey(rollNo)) return;
+        Student s = lookup.apply(rollNo);
+        if (s != null) found.put(rollNo, s);
+    }
+
+    public synchronized List<Student> nameStartsWith(String prefix, int limit) {
+        return prefixRange(names, normalize(prefix), limit);
+    }
+
+    // Any word of the name starts with prefix, e.g. a surname.
+    public synchronized List<Student> nameWordStartsWith(String prefix, int limit) {
+        return prefixRange(nameWords, normalize(prefix), limit);
+    }
+
+    public synchronized List<Student> emailStartsWith(String prefix, int limit) {
+        return prefixRange(emails, normalize(prefix), limit);
+    }
+
+    // e.g. emailEndsWith("@gmail.com", 50)
+    public synchronized List<Student> emailEndsWith(String suffix, int limit) {
+        return prefixRange(reversedEmails, reverse(normalize(suffix)), limit);
+    }
+
+    public synchronized List<Student> courseStartsWith(String prefix, int limit) {
+        return prefixRange(courses, normalize(prefix), limit);
+    }
+}
+
+// --- 30. Course Dictionary ---
+// Only a few dozen course names exist, but every parsed record used to carry its
+// own copy. Loaders intern course strings here so equal names share one instance,
+// and each distinct name gets a small int code for array-indexed grouping.
+// Capped so a file full of junk courses cannot grow it without bound; past the
+// cap values are returned as given and get no code.
+final class CourseDictionary {
+    static final CourseDictionary SHARED = new CourseDictionary();
+    private static final int MAX_ENTRIES = 1 << 16;
+
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] byCode = new String[64];
+    private int size;
+
+    public String intern(String course) {
+        if (course == null) {
+            return null;
+        }
+        Integer code = codes.get(course);
+        if (code != null) {
+            return byCode[code];
+        }
+        synchronized (this) {
+            code = codes.get(course);
+            if (code != null) {
+                return byCode[code];
+            }
+            if (size == MAX_ENTRIES) {
+                return course;
+            }
+            String[] table = byCode;
+            if (size == table.length) {
+                table = Arrays.copyOf(table, size * 2);
+            }
+            table[size] = course;
+            byCode = table;
+            codes.put(course, size++);
+            return course;
+        }
+    }
+
+    // -1 for null or for a course that was never interned.
+    public int code(String course) {
+        Integer code = course == null ? null : codes.get(course);
+        return code == null ? -1 : code;
+    }
+
+    public String course(int code) {
+        return byCode[code];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public Map<String, List<Student>> groupByCourse(Collection<Student> roster) {
+        List<List<Student>> buckets = new ArrayList<>();
+        Map<String, List<Student>> uncoded = new LinkedHashMap<>();
+        for (Student s : roster) {
+            int code = code(s.getCourse());
+            if (code < 0) {
+                uncoded.computeIfAbsent(s.getCourse(), k -> new ArrayList<>()).add(s);
+                continue;
+            }
+            while (buckets.size() <= code) buckets.add(null);
+            List<Student> bucket = buckets.get(code);
+            if (bucket == null) {
+                bucket = new ArrayList<>();
+                buckets.set(code, bucket);
+            }
+            bucket.add(s);
+        }
+        Map<String, List<Student>> groups = new LinkedHashMap<>();
+        for (int code = 0; code < buckets.size(); code++) {
+            if (buckets.get(code) != null) groups.put(course(code), buckets.get(code));
+        }
+        groups.putAll(uncoded);
+        return groups;
+    }
+}